@@ -0,0 +1,53 @@
+package benchmark.src;
+
+import distrbutive.src.DistributiveEmitter;
+import engine.src.FrameScheduler;
+import engine.src.ParticleSink;
+import engine.src.ParticleStore;
+import parallel.src.ParallelEmitter;
+import sequentilal.src.SequentialEmitter;
+
+public interface BenchEmitter {
+    void emit(int count);
+    void update();
+    void draw(ParticleSink sink);
+    ParticleStore getParticles();
+    void setSeed(long seed);
+
+    static BenchEmitter create(String backend, FrameScheduler scheduler) {
+        switch (backend) {
+            case "sequential": {
+                SequentialEmitter emitter = new SequentialEmitter(400, 250);
+                return new BenchEmitter() {
+                    public void emit(int count) { emitter.emit(count); }
+                    public void update() { emitter.update(); }
+                    public void draw(ParticleSink sink) { emitter.draw(sink); }
+                    public ParticleStore getParticles() { return emitter.getParticles(); }
+                    public void setSeed(long seed) { emitter.setSeed(seed); }
+                };
+            }
+            case "parallel": {
+                ParallelEmitter emitter = new ParallelEmitter(400, 250, scheduler);
+                return new BenchEmitter() {
+                    public void emit(int count) { emitter.emit(count); }
+                    public void update() { emitter.update(); }
+                    public void draw(ParticleSink sink) { emitter.draw(sink); }
+                    public ParticleStore getParticles() { return emitter.getParticles(); }
+                    public void setSeed(long seed) { emitter.setSeed(seed); }
+                };
+            }
+            case "distributive": {
+                DistributiveEmitter emitter = new DistributiveEmitter(400, 250, scheduler);
+                return new BenchEmitter() {
+                    public void emit(int count) { emitter.emit(count); }
+                    public void update() { emitter.update(); }
+                    public void draw(ParticleSink sink) { emitter.draw(sink); }
+                    public ParticleStore getParticles() { return emitter.getParticles(); }
+                    public void setSeed(long seed) { emitter.setSeed(seed); }
+                };
+            }
+            default:
+                throw new IllegalArgumentException("Unknown backend " + backend);
+        }
+    }
+}
\ No newline at end of file
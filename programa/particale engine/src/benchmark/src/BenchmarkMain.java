@@ -0,0 +1,31 @@
+package benchmark.src;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+public class BenchmarkMain {
+    public static void main(String[] args) throws RunnerException {
+        String output = args.length > 0 ? args[0] : "benchmark-results.json";
+        String include = args.length > 1 ? args[1] : "benchmark\\.src\\..*";
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        List<String> threads = new ArrayList<>();
+        for (int t = 1; t < cores; t *= 2) {
+            threads.add(String.valueOf(t));
+        }
+        threads.add(String.valueOf(cores));
+
+        Options options = new OptionsBuilder()
+                .include(include)
+                .param("threads", threads.toArray(new String[0]))
+                .resultFormat(ResultFormatType.JSON)
+                .result(output)
+                .build();
+        new Runner(options).run();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,70 @@
+package benchmark.src;
+
+import engine.src.CollisionPass;
+import engine.src.FrameScheduler;
+import engine.src.ParticleStore;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class CollisionBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class CollisionState {
+        @Param({"1000", "4000", "16000", "64000"})
+        public int population;
+
+        @Param({"1", "4"})
+        public int threads;
+
+        FrameScheduler scheduler;
+        CollisionPass collisions;
+        ParticleStore particles;
+
+        // A tenth of the particles sit offscreen, where the grid leaves them out.
+        @Setup(Level.Trial)
+        public void populate() {
+            scheduler = new FrameScheduler(threads);
+            collisions = new CollisionPass(800, 600, 6, 0.5);
+            particles = new ParticleStore(population);
+            SplittableRandom random = new SplittableRandom(42);
+            for (int i = 0; i < population; i++) {
+                double x = random.nextDouble() * 800;
+                double y = random.nextInt(10) == 0 ? -50 - random.nextDouble() * 100 : random.nextDouble() * 600;
+                particles.add(x, y, 0, 0, Float.MAX_VALUE);
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void shutdown() {
+            scheduler.shutdown();
+        }
+    }
+
+    @Benchmark
+    public boolean grid(CollisionState state) {
+        return state.collisions.apply(state.particles, state.scheduler);
+    }
+
+    @Benchmark
+    public boolean direct(CollisionState state) {
+        return state.collisions.applyDirect(state.particles, state.scheduler);
+    }
+}
\ No newline at end of file
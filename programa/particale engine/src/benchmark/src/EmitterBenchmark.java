@@ -0,0 +1,145 @@
+package benchmark.src;
+
+import engine.src.FrameScheduler;
+import engine.src.ParticleStore;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class EmitterBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class EmitterState {
+        @Param({"sequential", "parallel", "distributive"})
+        public String backend;
+
+        @Param({"1000", "10000", "100000", "1000000", "10000000"})
+        public int population;
+
+        @Param({"1"})
+        public int threads;
+
+        @Param({"42"})
+        public long seed;
+
+        FrameScheduler scheduler;
+        BenchEmitter emitter;
+
+        @Setup(Level.Trial)
+        public void createEmitter() {
+            scheduler = new FrameScheduler(threads);
+            emitter = BenchEmitter.create(backend, scheduler);
+            emitter.setSeed(seed);
+        }
+
+        @TearDown(Level.Trial)
+        public void shutdown() {
+            scheduler.shutdown();
+        }
+
+        void populate(float liveTtl, boolean killEveryOther) {
+            ParticleStore particles = emitter.getParticles();
+            SplittableRandom random = new SplittableRandom(42);
+            particles.clear();
+            particles.ensureCapacity(population);
+            for (int i = 0; i < population; i++) {
+                double dx = (random.nextDouble() - 0.5) * 7;
+                double dy = (random.nextDouble() - 0.5) * 7;
+                particles.add(400, 250, dx, dy, killEveryOther && (i & 1) == 0 ? 0 : liveTtl);
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class EmitState extends EmitterState {
+        @Setup(Level.Invocation)
+        public void clear() {
+            emitter.getParticles().clear();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class UpdateState extends EmitterState {
+        @Setup(Level.Iteration)
+        public void populate() {
+            populate(Float.MAX_VALUE, false);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class RemovalState extends EmitterState {
+        @Setup(Level.Invocation)
+        public void populate() {
+            populate(80, true);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class ExpiryState extends EmitterState {
+        @Setup(Level.Invocation)
+        public void populate() {
+            populate(80, false);
+            ParticleStore particles = emitter.getParticles();
+            for (int i = 0; i < population / 2; i++) {
+                particles.set(i, particles.x(i), particles.y(i), particles.dx(i), particles.dy(i), 0);
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class DrawState extends EmitterState {
+        OffscreenSink sink;
+
+        @Setup(Level.Iteration)
+        public void populate() {
+            populate(80, false);
+            sink = new OffscreenSink();
+        }
+    }
+
+    @Benchmark
+    public ParticleStore emit(EmitState state) {
+        state.emitter.emit(state.population);
+        return state.emitter.getParticles();
+    }
+
+    @Benchmark
+    public ParticleStore update(UpdateState state) {
+        state.emitter.update();
+        return state.emitter.getParticles();
+    }
+
+    @Benchmark
+    public int removeDead(RemovalState state) {
+        return state.emitter.getParticles().removeDead();
+    }
+
+    @Benchmark
+    public int removeExpired(ExpiryState state) {
+        return state.emitter.getParticles().removeExpired();
+    }
+
+    @Benchmark
+    public void draw(DrawState state, Blackhole blackhole) {
+        state.emitter.draw(state.sink);
+        blackhole.consume(state.sink.checksum());
+    }
+}
\ No newline at end of file
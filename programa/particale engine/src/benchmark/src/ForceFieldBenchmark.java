@@ -0,0 +1,73 @@
+package benchmark.src;
+
+import engine.src.ForceField;
+import engine.src.FrameScheduler;
+import engine.src.ParticleStore;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class ForceFieldBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class FieldState {
+        @Param({"1000", "4000", "16000", "64000"})
+        public int population;
+
+        @Param({"0.5", "1.0"})
+        public double theta;
+
+        @Param({"1", "4"})
+        public int threads;
+
+        FrameScheduler scheduler;
+        ForceField field;
+        ParticleStore particles;
+
+        @Setup(Level.Trial)
+        public void populate() {
+            scheduler = new FrameScheduler(threads);
+            field = new ForceField(1, theta, 2);
+            field.setTimeout(10, TimeUnit.MINUTES);
+            field.addAttractor(200, 150, 500);
+            field.addAttractor(600, 450, -500);
+            particles = new ParticleStore(population);
+            SplittableRandom random = new SplittableRandom(42);
+            for (int i = 0; i < population; i++) {
+                particles.add(random.nextDouble() * 800, random.nextDouble() * 600, 0, 0, Float.MAX_VALUE);
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void shutdown() {
+            scheduler.shutdown();
+        }
+    }
+
+    @Benchmark
+    public boolean barnesHut(FieldState state) {
+        return state.field.apply(state.particles, state.scheduler);
+    }
+
+    @Benchmark
+    public boolean directSum(FieldState state) {
+        return state.field.applyDirect(state.particles, state.scheduler);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,95 @@
+package benchmark.src;
+
+import distrbutive.src.DistributiveEmitter;
+import engine.src.BoundsPolicy;
+import engine.src.FrameEncoder;
+import engine.src.FrameMetrics;
+import engine.src.HeadlessRenderer;
+import engine.src.LatencyHistogram;
+import engine.src.ParticleSink;
+import engine.src.ParticleStore;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.function.Consumer;
+import parallel.src.ParallelEmitter;
+import sequentilal.src.SequentialEmitter;
+
+// Offline content pipeline entry point; needs no display, so it runs on build servers with -Djava.awt.headless=true.
+public class HeadlessMain {
+    public static void main(String[] args) throws Exception {
+        String mode = args.length > 0 ? args[0] : "parallel";
+        int frames = args.length > 1 ? Integer.parseInt(args[1]) : 600;
+        Path directory = Paths.get(args.length > 2 ? args[2] : mode + "-frames");
+        FrameEncoder.Format format = FrameEncoder.Format.valueOf((args.length > 3 ? args[3] : "png").toUpperCase(Locale.ROOT));
+        int emitPerFrame = args.length > 4 ? Integer.parseInt(args[4]) : 2000;
+        long seed = args.length > 5 ? Long.parseLong(args[5]) : 42;
+
+        BoundsPolicy bounds = new BoundsPolicy(BoundsPolicy.Mode.RETIRE, 800, 600, 10);
+        Runnable simulate;
+        Consumer<ParticleSink> draw;
+        FrameMetrics metrics;
+        ParticleStore particles;
+        switch (mode) {
+            case "sequential": {
+                SequentialEmitter emitter = new SequentialEmitter(400, 250);
+                emitter.setSeed(seed);
+                emitter.setBounds(bounds);
+                simulate = () -> {
+                    emitter.emit(emitPerFrame);
+                    emitter.update();
+                };
+                draw = emitter::draw;
+                metrics = emitter.getMetrics();
+                particles = emitter.getParticles();
+                break;
+            }
+            case "parallel": {
+                ParallelEmitter emitter = new ParallelEmitter(400, 250);
+                emitter.setSeed(seed);
+                emitter.setBounds(bounds);
+                simulate = () -> {
+                    emitter.emit(emitPerFrame);
+                    emitter.update();
+                };
+                draw = emitter::draw;
+                metrics = emitter.getMetrics();
+                particles = emitter.getParticles();
+                break;
+            }
+            case "distributive": {
+                DistributiveEmitter emitter = new DistributiveEmitter(400, 250);
+                emitter.setSeed(seed);
+                emitter.setBounds(bounds);
+                simulate = () -> {
+                    emitter.emit(emitPerFrame);
+                    emitter.update();
+                };
+                draw = emitter::draw;
+                metrics = emitter.getMetrics();
+                particles = emitter.getParticles();
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("Unknown mode " + mode + ", expected sequential, parallel or distributive");
+        }
+
+        HeadlessRenderer renderer = new HeadlessRenderer(800, 600, () -> {
+            simulate.run();
+            metrics.endFrame(particles.size());
+        }, draw);
+        long started = System.nanoTime();
+        int written = renderer.render(frames, directory, format);
+        double seconds = (System.nanoTime() - started) / 1e9;
+        System.out.printf("%s: %d frames to %s in %.2f s (%.1f frames/s, %d particles at the end)%n",
+                mode, written, directory, seconds, written / seconds, particles.size());
+        report("simulate+draw", renderer.getSimulation());
+        report("rasterize", renderer.getRasterization());
+        report("encode " + format.extension(), renderer.getEncoding());
+    }
+
+    private static void report(String label, LatencyHistogram histogram) {
+        System.out.printf("  %-13s mean %.2f ms  p50 %.2f ms  p99 %.2f ms%n", label,
+                histogram.mean() / 1e6, histogram.percentile(50) / 1e6, histogram.percentile(99) / 1e6);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,117 @@
+package benchmark.src;
+
+import engine.src.Integrator;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import vector.src.VectorIntegrator;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "--add-modules", "jdk.incubator.vector"})
+public class IntegratorBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class ArrayState {
+        @Param({"scalar", "vector"})
+        public String integrator;
+
+        @Param({"1000", "10000", "100000", "1000000", "10000000"})
+        public int population;
+
+        Integrator kernel;
+        double[] x, y, dx, dy;
+        float[] ttl;
+
+        @Setup(Level.Iteration)
+        public void populate() {
+            kernel = "vector".equals(integrator) ? new VectorIntegrator() : Integrator.scalar();
+            SplittableRandom random = new SplittableRandom(42);
+            x = new double[population];
+            y = new double[population];
+            dx = new double[population];
+            dy = new double[population];
+            ttl = new float[population];
+            for (int i = 0; i < population; i++) {
+                x[i] = 400;
+                y[i] = 250;
+                dx[i] = (random.nextDouble() - 0.5) * 7;
+                dy[i] = (random.nextDouble() - 0.5) * 7;
+                ttl[i] = Float.MAX_VALUE;
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class ObjectState {
+        @Param({"1000", "10000", "100000", "1000000", "10000000"})
+        public int population;
+
+        Particle[] particles;
+
+        @Setup(Level.Iteration)
+        public void populate() {
+            SplittableRandom random = new SplittableRandom(42);
+            particles = new Particle[population];
+            for (int i = 0; i < population; i++) {
+                particles[i] = new Particle(400, 250, (random.nextDouble() - 0.5) * 7, (random.nextDouble() - 0.5) * 7, Double.MAX_VALUE);
+            }
+        }
+    }
+
+    static class Particle {
+        private double x, y;
+        private final double dx;
+        private double dy;
+        private double ttl;
+
+        Particle(double x, double y, double dx, double dy, double ttl) {
+            this.x = x;
+            this.y = y;
+            this.dx = dx;
+            this.dy = dy;
+            this.ttl = ttl;
+        }
+
+        void update() {
+            x += dx;
+            y += dy;
+            dy += 0.1;
+            ttl--;
+        }
+
+        boolean isAlive() {
+            return ttl > 0;
+        }
+    }
+
+    @Benchmark
+    public int arrays(ArrayState state) {
+        return state.kernel.integrate(state.x, state.y, state.dx, state.dy, state.ttl, 0, state.population);
+    }
+
+    @Benchmark
+    public int objects(ObjectState state) {
+        int alive = 0;
+        for (Particle p : state.particles) {
+            p.update();
+            if (p.isAlive()) {
+                alive++;
+            }
+        }
+        return alive;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,86 @@
+package benchmark.src;
+
+import distrbutive.src.ShardCoordinator;
+import engine.src.EmitCommand;
+import engine.src.FrameMetrics;
+import engine.src.LatencyHistogram;
+import engine.src.ParticleStore;
+import engine.src.WorkerHub;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import worker.src.DistributiveWorker;
+
+public class LoadBalanceHarness {
+    private static final int PORT = 5101;
+    private static final int WARMUP_FRAMES = 160;
+
+    public static void main(String[] args) throws Exception {
+        int workers = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        long throttleNanos = args.length > 1 ? Long.parseLong(args[1]) : 1000;
+        int emitPerFrame = args.length > 2 ? Integer.parseInt(args[2]) : 400;
+        int frames = args.length > 3 ? Integer.parseInt(args[3]) : 600;
+
+        LatencyHistogram equal = run(false, workers, throttleNanos, emitPerFrame, frames);
+        LatencyHistogram balanced = run(true, workers, throttleNanos, emitPerFrame, frames);
+        System.out.printf("%d workers, one throttled by %d ns/particle, %d emits/frame%n", workers, throttleNanos, emitPerFrame);
+        report("equal shares", equal);
+        report("balanced", balanced);
+        System.out.printf("speedup (mean frame): %.2fx%n", (double) equal.mean() / Math.max(1, balanced.mean()));
+    }
+
+    private static LatencyHistogram run(boolean balance, int workers, long throttleNanos, int emitPerFrame, int frames) throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        List<Process> processes = new ArrayList<>();
+        WorkerHub hub = new WorkerHub(PORT);
+        try {
+            for (int i = 0; i < workers; i++) {
+                processes.add(launchWorker(i == 0 ? throttleNanos : 0));
+            }
+            if (!hub.awaitWorkers(workers, 30, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Only " + hub.size() + " of " + workers + " workers connected");
+            }
+
+            ShardCoordinator coordinator = new ShardCoordinator(hub, new FrameMetrics());
+            coordinator.getBalancer().setEnabled(balance);
+            ParticleStore particles = new ParticleStore();
+            SplittableRandom seeds = new SplittableRandom(42);
+            for (int frame = 0; frame < frames; frame++) {
+                long started = System.nanoTime();
+                coordinator.step(count -> new EmitCommand(400, 250, count, seeds.nextLong(), 80), emitPerFrame, particles);
+                if (frame >= WARMUP_FRAMES) {
+                    histogram.record(System.nanoTime() - started);
+                }
+            }
+        } finally {
+            for (Process process : processes) {
+                process.destroy();
+                process.waitFor(5, TimeUnit.SECONDS);
+            }
+            hub.close();
+        }
+        return histogram;
+    }
+
+    // -Dworker.launcher=.../worker-image/bin/worker starts workers from the jlink/AppCDS image instead of this JVM's class path.
+    private static Process launchWorker(long throttleNanos) throws Exception {
+        String launcher = System.getProperty("worker.launcher");
+        if (launcher != null) {
+            return new ProcessBuilder(launcher, String.valueOf(throttleNanos), String.valueOf(PORT))
+                    .inheritIO()
+                    .start();
+        }
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        return new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), DistributiveWorker.class.getName(),
+                String.valueOf(throttleNanos), String.valueOf(PORT))
+                .inheritIO()
+                .start();
+    }
+
+    private static void report(String label, LatencyHistogram histogram) {
+        System.out.printf("%-13s mean %.2f ms  p50 %.2f ms  p99 %.2f ms%n", label,
+                histogram.mean() / 1e6, histogram.percentile(50) / 1e6, histogram.percentile(99) / 1e6);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,23 @@
+package benchmark.src;
+
+import engine.src.AlphaPalette;
+import engine.src.ParticleSink;
+
+public class OffscreenSink implements ParticleSink {
+    private long drawn;
+    private double checksum;
+
+    @Override
+    public void fill(double x, double y, double size, AlphaPalette palette, int shade) {
+        drawn++;
+        checksum += x + y + size + palette.alpha(shade);
+    }
+
+    public long drawn() {
+        return drawn;
+    }
+
+    public double checksum() {
+        return checksum;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,73 @@
+package benchmark.src;
+
+import engine.src.FrameRecorder;
+import engine.src.FrameReplay;
+import engine.src.FrameSnapshot;
+import engine.src.LatencyHistogram;
+import engine.src.PixelRasterizer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import sequentilal.src.SequentialEmitter;
+
+public class ReplayHarness {
+    public static void main(String[] args) throws Exception {
+        Path capture = Paths.get(args.length > 0 ? args[0] : "replay-capture.prec");
+        int passes = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        int frames = args.length > 2 ? Integer.parseInt(args[2]) : 600;
+        int emitPerFrame = args.length > 3 ? Integer.parseInt(args[3]) : 2000;
+
+        if (!Files.exists(capture)) {
+            record(capture, frames, emitPerFrame);
+        }
+        try (FrameReplay replay = new FrameReplay(capture)) {
+            System.out.printf("%s: %d frames, %.1f MB%s%n", capture, replay.frames(), Files.size(capture) / 1e6,
+                    replay.isIndexed() ? "" : " (index rebuilt by scan)");
+            PixelRasterizer rasterizer = new PixelRasterizer(800, 600);
+            OffscreenSink sink = new OffscreenSink();
+            for (int pass = 0; pass < passes; pass++) {
+                LatencyHistogram decode = new LatencyHistogram();
+                LatencyHistogram render = new LatencyHistogram();
+                long particles = 0;
+                long started = System.nanoTime();
+                for (int frame = 0; frame < replay.frames(); frame++) {
+                    long begin = System.nanoTime();
+                    particles += replay.replay(frame, sink);
+                    decode.record(System.nanoTime() - begin);
+
+                    begin = System.nanoTime();
+                    rasterizer.clear();
+                    replay.replay(frame, rasterizer);
+                    rasterizer.render();
+                    render.record(System.nanoTime() - begin);
+                }
+                double seconds = (System.nanoTime() - started) / 1e9;
+                System.out.printf("pass %d: %.0f frames/s, %.2f bytes/particle%n", pass + 1, replay.frames() / seconds,
+                        (double) Files.size(capture) / Math.max(1, particles));
+                report("decode", decode);
+                report("decode+render", render);
+            }
+        }
+    }
+
+    private static void record(Path capture, int frames, int emitPerFrame) throws Exception {
+        SequentialEmitter emitter = new SequentialEmitter(400, 250);
+        emitter.setSeed(42);
+        FrameSnapshot snapshot = new FrameSnapshot();
+        try (FrameRecorder recorder = new FrameRecorder(capture)) {
+            for (int frame = 0; frame < frames; frame++) {
+                emitter.emit(emitPerFrame);
+                emitter.update();
+                snapshot.clear();
+                emitter.draw(snapshot);
+                recorder.record(snapshot, frame * (1_000_000_000L / 60));
+            }
+        }
+        System.out.printf("Recorded %d frames of %d emits/frame%n", frames, emitPerFrame);
+    }
+
+    private static void report(String label, LatencyHistogram histogram) {
+        System.out.printf("  %-13s mean %.2f ms  p50 %.2f ms  p99 %.2f ms%n", label,
+                histogram.mean() / 1e6, histogram.percentile(50) / 1e6, histogram.percentile(99) / 1e6);
+    }
+}
\ No newline at end of file
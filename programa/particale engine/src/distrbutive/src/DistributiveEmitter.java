@@ -1,79 +1,126 @@
-package distrbutive.src;
-
-import javafx.scene.canvas.GraphicsContext;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
-
-public class DistributiveEmitter {
-    private double x, y;
-    protected List<DistributiveParticle> particles;
-    private final int THREAD_COUNT = Runtime.getRuntime().availableProcessors();
-
-    public DistributiveEmitter(double x, double y) {
-        this.x = x;
-        this.y = y;
-        this.particles = new ArrayList<>();
-    }
-
-    public void emit(int count) {
-        for (int i = 0; i < count; i++) {
-            double dx = (Math.random() - 0.5) * 7;
-            double dy = (Math.random() - 0.5) * 7;
-            double ttl = 80;
-            particles.add(new DistributiveParticle(x, y, dx, dy, ttl));
-        }
-    }
-
-    public void update() {
-        ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
-        int chunkSize = particles.size() / THREAD_COUNT + (particles.size() % THREAD_COUNT == 0 ? 0 : 1);
-        List<DistributiveParticle> toRemove = new ArrayList<>();
-
-        for (int i = 0; i < THREAD_COUNT; i++) {
-            final int start = i * chunkSize;
-            final int end = Math.min(start + chunkSize, particles.size());
-            if (start < particles.size()) {
-                final int threadId = i;
-                executor.submit(() -> {
-                    System.out.println("Thread " + threadId + " updating from " + start + " to " + end);
-                    for (int j = start; j < end; j++) {
-                        DistributiveParticle p = particles.get(j);
-                        p.update();
-                        if (!p.isAlive()) {
-                            synchronized (toRemove) {
-                                toRemove.add(p);
-                            }
-                        }
-                    }
-                });
-            }
-        }
-
-        executor.shutdown();
-        try {
-            executor.awaitTermination(1, TimeUnit.SECONDS);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        }
-
-        synchronized (particles) {
-            particles.removeAll(toRemove);
-        }
-    }
-
-    public void draw(GraphicsContext gc) {
-        synchronized (particles) {
-            System.out.println("Drawing " + particles.size() + " particles");
-            for (DistributiveParticle p : particles) {
-                p.draw(gc);
-            }
-        }
-    }
-
-    public List<DistributiveParticle> getParticles() {
-        return particles;
-    }
+package distrbutive.src;
+
+import engine.src.AlphaPalette;
+import engine.src.BoundsPolicy;
+import engine.src.CollisionPass;
+import engine.src.ForceField;
+import engine.src.FrameMetrics;
+import engine.src.EmitCommand;
+import engine.src.FrameScheduler;
+import engine.src.ParticleSink;
+import engine.src.ParticleSpawner;
+import engine.src.ParticleStore;
+import engine.src.Viewport;
+import java.util.concurrent.TimeUnit;
+
+public class DistributiveEmitter {
+    private double x, y;
+    private static final AlphaPalette PALETTE = AlphaPalette.rgb(0xFF0000, 80);
+    private static final float TTL = 80;
+    protected ParticleStore particles;
+    private CollisionPass collisions;
+    private ForceField forces;
+    private BoundsPolicy bounds;
+    private Viewport viewport = new Viewport(800, 600);
+    private final FrameMetrics metrics = new FrameMetrics();
+    private final FrameScheduler scheduler;
+    private final ParticleSpawner spawner;
+
+    public DistributiveEmitter(double x, double y) {
+        this(x, y, FrameScheduler.shared());
+    }
+
+    public DistributiveEmitter(double x, double y, FrameScheduler scheduler) {
+        this.x = x;
+        this.y = y;
+        this.scheduler = scheduler;
+        this.spawner = new ParticleSpawner(scheduler);
+        metrics.trackAllocations(scheduler);
+        this.particles = new ParticleStore(PALETTE);
+    }
+
+    public void emit(int count) {
+        long started = metrics.begin();
+        spawner.spawn(particles, x, y, count, TTL);
+        metrics.end(FrameMetrics.Phase.EMIT, started);
+    }
+
+    public EmitCommand emitCommand(int count) {
+        return new EmitCommand(x, y, count, spawner.nextSeed(), TTL);
+    }
+
+    public void update() {
+        long started = metrics.begin();
+        if (collisions != null && !collisions.apply(particles, scheduler)) {
+            System.err.println("Distributive collision pass exceeded frame timeout");
+        }
+        if (forces != null && !forces.apply(particles, scheduler)) {
+            System.err.println("Distributive force field exceeded frame timeout");
+        }
+        int size = particles.size();
+        boolean completed = scheduler.forEach(size, (start, end) -> particles.integrate(start, end), 1, TimeUnit.SECONDS);
+        if (!completed) {
+            System.err.println("Distributive update exceeded frame timeout");
+        }
+        if (bounds != null) {
+            if (!bounds.apply(particles, scheduler)) {
+                System.err.println("Distributive bounds pass exceeded frame timeout");
+            }
+            metrics.addRetired(bounds.getRetired());
+        }
+        metrics.end(FrameMetrics.Phase.UPDATE, started);
+
+        started = metrics.begin();
+        particles.removeExpired();
+        metrics.end(FrameMetrics.Phase.COMPACT, started);
+    }
+
+    public void draw(ParticleSink sink) {
+        long started = metrics.begin();
+        Viewport visible = viewport;
+        int culled = 0;
+        for (int i = 0; i < particles.size(); i++) {
+            if (!particles.isAlive(i)) {
+                continue;
+            }
+            double x = particles.x(i);
+            double y = particles.y(i);
+            int shade = particles.shade(i);
+            if (visible != null && !visible.isVisible(x, y, 5, PALETTE, shade)) {
+                culled++;
+                continue;
+            }
+            sink.fill(x, y, 5, PALETTE, shade);
+        }
+        metrics.addCulled(culled);
+        metrics.end(FrameMetrics.Phase.DRAW, started);
+    }
+
+    public ParticleStore getParticles() {
+        return particles;
+    }
+
+    public FrameMetrics getMetrics() {
+        return metrics;
+    }
+
+    public void setSeed(long seed) {
+        spawner.setSeed(seed);
+    }
+
+    public void setCollisions(CollisionPass collisions) {
+        this.collisions = collisions;
+    }
+
+    public void setForceField(ForceField forces) {
+        this.forces = forces;
+    }
+
+    public void setBounds(BoundsPolicy bounds) {
+        this.bounds = bounds;
+    }
+
+    public void setViewport(Viewport viewport) {
+        this.viewport = viewport;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,260 @@
+package distrbutive.src;
+
+import engine.src.EmitCommand;
+import engine.src.FrameMetrics;
+import engine.src.LoadBalancer;
+import engine.src.ParticleStore;
+import engine.src.WorkerHub;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+public class ShardCoordinator {
+    private static final double MIGRATION_SLACK = 0.05;
+    private static final double MAX_MIGRATION = 0.1;
+    private static final long DEFAULT_DEADLINE_MILLIS = 50;
+
+    private final WorkerHub hub;
+    private final FrameMetrics metrics;
+    private final LoadBalancer balancer = new LoadBalancer();
+    private final Map<Integer, Shard> shards = new HashMap<>();
+    private final ParticleStore local = new ParticleStore();
+    private long deadlineNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_DEADLINE_MILLIS);
+    private long frame;
+    private int migrated;
+    private int recomputed;
+
+    public ShardCoordinator(WorkerHub hub, FrameMetrics metrics) {
+        this.hub = hub;
+        this.metrics = metrics;
+    }
+
+    public LoadBalancer getBalancer() {
+        return balancer;
+    }
+
+    public int getMigrated() {
+        return migrated;
+    }
+
+    public int getRecomputed() {
+        return recomputed;
+    }
+
+    public int getLocalSize() {
+        return local.size();
+    }
+
+    public void setDeadline(long deadline, TimeUnit unit) {
+        this.deadlineNanos = unit.toNanos(deadline);
+    }
+
+    public int step(IntFunction<EmitCommand> emits, int emitted, ParticleStore into) throws IOException {
+        frame++;
+        migrated = 0;
+        recomputed = 0;
+        forgetDisconnected();
+        int[] ids = hub.readyIds();
+        if (ids.length == 0) {
+            hub.strikeStuck();
+            if (emitted > 0) {
+                emits.apply(emitted).spawnInto(local);
+            }
+            stepLocal();
+            publish(into, true);
+            return 0;
+        }
+
+        Shard[] round = new Shard[ids.length];
+        int total = emitted;
+        for (int i = 0; i < ids.length; i++) {
+            round[i] = shards.computeIfAbsent(ids[i], id -> new Shard());
+            round[i].prune(frame);
+            round[i].release = round[i].resync ? Integer.MAX_VALUE : 0;
+            round[i].resync = false;
+            round[i].outgoing.clear();
+            total += round[i].size;
+        }
+        double[] shares = balancer.shares(ids);
+        int[] targets = LoadBalancer.apportion(total, shares);
+        int[] spawned = LoadBalancer.apportion(emitted, shares);
+        int[] surplus = new int[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            surplus[i] = round[i].size + spawned[i] - targets[i];
+            if (spawned[i] > 0) {
+                round[i].outgoing.add(emits.apply(spawned[i]));
+            }
+        }
+        if (balancer.isEnabled()) {
+            migrate(round, targets, surplus, (int) (total * MAX_MIGRATION));
+        }
+        for (Shard shard : round) {
+            for (EmitCommand emit : shard.outgoing) {
+                shard.batches.addLast(new Batch(emit.aged(0), emit.getAge() == 0 ? frame : frame - emit.getAge()));
+            }
+        }
+
+        into.clear();
+        boolean[] replied = new boolean[ids.length];
+        int replies = hub.exchange((peer, channel) -> {
+            long started = metrics.begin();
+            Shard shard = round[peer.getIndex()];
+            channel.encodeStep(shard.release, shard.outgoing);
+            metrics.end(FrameMetrics.Phase.SEND, started);
+        }, (peer, channel) -> {
+            long started = metrics.begin();
+            int count = channel.decodeSnapshot(into);
+            replied[peer.getIndex()] = true;
+            round[peer.getIndex()].size = count;
+            balancer.record(peer.getId(), count, peer.getRoundTripNanos());
+            metrics.end(FrameMetrics.Phase.RECEIVE, started);
+        }, deadlineNanos, TimeUnit.NANOSECONDS);
+
+        stepLocal();
+        for (int i = 0; i < ids.length; i++) {
+            if (!replied[i]) {
+                balancer.record(ids[i], round[i].size, deadlineNanos);
+                recover(round[i], 1);
+                round[i].resync = true;
+            }
+        }
+        local.removeExpired();
+        publish(into, false);
+        return replies;
+    }
+
+    public int roundTrip(ParticleStore particles) throws IOException {
+        recomputed = 0;
+        forgetDisconnected();
+        int[] ids = hub.readyIds();
+        if (ids.length == 0) {
+            hub.strikeStuck();
+            recomputed = particles.size();
+            particles.integrate(0, particles.size());
+            return 0;
+        }
+        int[] counts = balancer.split(particles.size(), ids);
+        int[] starts = new int[ids.length + 1];
+        for (int i = 0; i < ids.length; i++) {
+            starts[i + 1] = starts[i] + counts[i];
+        }
+        boolean[] replied = new boolean[ids.length];
+        int replies = hub.exchange((peer, channel) -> {
+            long started = metrics.begin();
+            channel.encodeParticles(particles, starts[peer.getIndex()], starts[peer.getIndex() + 1]);
+            metrics.end(FrameMetrics.Phase.SEND, started);
+        }, (peer, channel) -> {
+            long started = metrics.begin();
+            int count = channel.decodeParticles(particles, starts[peer.getIndex()]);
+            replied[peer.getIndex()] = true;
+            balancer.record(peer.getId(), count, peer.getRoundTripNanos());
+            metrics.end(FrameMetrics.Phase.RECEIVE, started);
+        }, deadlineNanos, TimeUnit.NANOSECONDS);
+
+        for (int i = 0; i < ids.length; i++) {
+            if (!replied[i]) {
+                balancer.record(ids[i], counts[i], deadlineNanos);
+                particles.integrate(starts[i], starts[i + 1]);
+                recomputed += counts[i];
+            }
+        }
+        return replies;
+    }
+
+    private void migrate(Shard[] round, int[] targets, int[] surplus, int budget) {
+        for (int donor = 0; donor < round.length && budget > 0; donor++) {
+            Shard from = round[donor];
+            while (surplus[donor] > Math.max(1, targets[donor] * MIGRATION_SLACK) && !from.batches.isEmpty()) {
+                Batch batch = from.batches.peekLast();
+                int receiver = mostStarved(surplus);
+                if (batch.emit.getCount() > surplus[donor] || batch.emit.getCount() > budget
+                        || batch.emit.getCount() > -surplus[receiver]) {
+                    break;
+                }
+                from.batches.removeLast();
+                from.release += batch.emit.getCount();
+                from.size -= batch.emit.getCount();
+                round[receiver].outgoing.add(batch.emit.aged((int) (frame - batch.frame)));
+                surplus[donor] -= batch.emit.getCount();
+                surplus[receiver] += batch.emit.getCount();
+                budget -= batch.emit.getCount();
+                migrated += batch.emit.getCount();
+            }
+        }
+    }
+
+    private static int mostStarved(int[] surplus) {
+        int best = 0;
+        for (int i = 1; i < surplus.length; i++) {
+            if (surplus[i] < surplus[best]) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    private void recover(Shard shard, int extraAge) {
+        for (Batch batch : shard.batches) {
+            batch.emit.aged((int) (frame - batch.frame) + extraAge).spawnInto(local);
+            recomputed += batch.emit.getCount();
+        }
+        shard.batches.clear();
+        shard.size = 0;
+    }
+
+    private void stepLocal() {
+        local.integrate(0, local.size());
+        local.removeExpired();
+    }
+
+    private void publish(ParticleStore into, boolean replace) {
+        if (replace) {
+            into.clear();
+        }
+        into.ensureCapacity(into.size() + local.size());
+        for (int i = 0; i < local.size(); i++) {
+            into.add(local.x(i), local.y(i), local.dx(i), local.dy(i), local.ttl(i));
+        }
+    }
+
+    private void forgetDisconnected() {
+        Iterator<Map.Entry<Integer, Shard>> entries = shards.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<Integer, Shard> entry = entries.next();
+            if (!hub.isConnected(entry.getKey())) {
+                recover(entry.getValue(), 0);
+                entries.remove();
+                balancer.forget(entry.getKey());
+            }
+        }
+    }
+
+    private static class Batch {
+        final EmitCommand emit;
+        final long frame;
+
+        Batch(EmitCommand emit, long frame) {
+            this.emit = emit;
+            this.frame = frame;
+        }
+    }
+
+    private static class Shard {
+        final Deque<Batch> batches = new ArrayDeque<>();
+        final List<EmitCommand> outgoing = new ArrayList<>();
+        int size;
+        int release;
+        boolean resync;
+
+        void prune(long frame) {
+            batches.removeIf(batch -> frame - batch.frame >= batch.emit.getTtl());
+        }
+    }
+}
\ No newline at end of file
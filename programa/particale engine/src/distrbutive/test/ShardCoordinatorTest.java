@@ -0,0 +1,86 @@
+package distrbutive.src;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import engine.src.EmitCommand;
+import engine.src.FrameMetrics;
+import engine.src.ParticleChannel;
+import engine.src.ParticleStore;
+import engine.src.WorkerHub;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.SocketChannel;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import worker.src.DistributiveWorker;
+
+class ShardCoordinatorTest {
+    private static final int WORKERS = 3;
+    private static final long THROTTLE_NANOS = 2000;
+    private static final int EMIT_PER_FRAME = 200;
+    private static final int TTL = 80;
+    private static final int WINDOW = 40;
+    private static final int RAMP_WINDOWS = 3;
+    private static final int MAX_WINDOWS = 20;
+    private static final double SETTLED = 0.2;
+    private static final long SETTLED_NANOS = TimeUnit.MICROSECONDS.toNanos(500);
+
+    @Test
+    void throttledWorkerShedsLoadUntilFrameTimeConverges() throws Exception {
+        try (WorkerHub hub = new WorkerHub(0)) {
+            startWorker(hub.getPort(), THROTTLE_NANOS);
+            assertTrue(hub.awaitWorkers(1, 10, TimeUnit.SECONDS), "throttled worker did not connect");
+            int throttled = hub.readyIds()[0];
+            for (int i = 1; i < WORKERS; i++) {
+                startWorker(hub.getPort(), 0);
+            }
+            assertTrue(hub.awaitWorkers(WORKERS, 10, TimeUnit.SECONDS), "only " + hub.size() + " workers connected");
+
+            ShardCoordinator coordinator = new ShardCoordinator(hub, new FrameMetrics());
+            ParticleStore particles = new ParticleStore();
+            SplittableRandom seeds = new SplittableRandom(42);
+            double share = 1.0 / WORKERS;
+            long mean = Long.MAX_VALUE;
+            for (int window = 0; window < MAX_WINDOWS; window++) {
+                long elapsed = 0;
+                for (int frame = 0; frame < WINDOW; frame++) {
+                    long started = System.nanoTime();
+                    coordinator.step(count -> new EmitCommand(400, 250, count, seeds.nextLong(), TTL), EMIT_PER_FRAME, particles);
+                    elapsed += System.nanoTime() - started;
+                }
+                double previousShare = share;
+                long previousMean = mean;
+                share = coordinator.getBalancer().getShare(throttled);
+                mean = elapsed / WINDOW;
+                if (window < RAMP_WINDOWS) {
+                    continue;
+                }
+                assertTrue(share <= previousShare + 0.01, "throttled share grew from " + previousShare + " to " + share);
+                if (Math.abs(mean - previousMean) <= Math.max(SETTLED * previousMean, SETTLED_NANOS)) {
+                    long equalShareNanos = THROTTLE_NANOS * EMIT_PER_FRAME * TTL / WORKERS;
+                    assertTrue(share < 0.5 / WORKERS, "throttled worker still holds " + share + " of the particles");
+                    assertTrue(mean < equalShareNanos / 2,
+                            "mean frame " + mean + " ns settled above half the equal-share cost of " + equalShareNanos + " ns");
+                    return;
+                }
+            }
+            throw new AssertionError("mean frame time still moving after " + MAX_WINDOWS * WINDOW + " frames: "
+                    + mean + " ns, throttled share " + share);
+        }
+    }
+
+    private static void startWorker(int port, long throttleNanos) {
+        Thread worker = new Thread(() -> {
+            try (ParticleChannel channel = new ParticleChannel(
+                    SocketChannel.open(new InetSocketAddress(InetAddress.getLoopbackAddress(), port)))) {
+                DistributiveWorker.serve(channel, throttleNanos, false);
+            } catch (IOException e) {
+                // the hub hangs up when the test closes it
+            }
+        }, "test-worker");
+        worker.setDaemon(true);
+        worker.start();
+    }
+}
@@ -0,0 +1,74 @@
+package engine.src;
+
+// Plain RGB so the simulation, the wire protocol and the capture format never touch JavaFX;
+// front ends turn a shade into their own colour type.
+public class AlphaPalette {
+    public static final int DEFAULT_LEVELS = 128;
+
+    private final double red, green, blue;
+    private final float fadeTtl;
+    private final int[] premultiplied;
+    private final float scale;
+    private final int maxIndex;
+
+    public AlphaPalette(double red, double green, double blue, float fadeTtl) {
+        this(red, green, blue, fadeTtl, DEFAULT_LEVELS);
+    }
+
+    public AlphaPalette(double red, double green, double blue, float fadeTtl, int levels) {
+        if (levels < 2 || levels > 256) {
+            throw new IllegalArgumentException("Palette levels must be between 2 and 256: " + levels);
+        }
+        this.red = red;
+        this.green = green;
+        this.blue = blue;
+        this.fadeTtl = fadeTtl;
+        this.premultiplied = new int[levels];
+        this.maxIndex = levels - 1;
+        this.scale = maxIndex / fadeTtl;
+        for (int i = 0; i < levels; i++) {
+            double alpha = alpha(i);
+            premultiplied[i] = (int) Math.round(alpha * 255) << 24
+                    | (int) Math.round(red * alpha * 255) << 16
+                    | (int) Math.round(green * alpha * 255) << 8
+                    | (int) Math.round(blue * alpha * 255);
+        }
+    }
+
+    public static AlphaPalette rgb(int rgb, float fadeTtl) {
+        return new AlphaPalette(((rgb >> 16) & 0xFF) / 255.0, ((rgb >> 8) & 0xFF) / 255.0, (rgb & 0xFF) / 255.0, fadeTtl);
+    }
+
+    public int indexOf(float ttl) {
+        int index = Math.round(ttl * scale);
+        return index < 0 ? 0 : Math.min(index, maxIndex);
+    }
+
+    public double alpha(int index) {
+        return (double) (index & 0xFF) / maxIndex;
+    }
+
+    public int premultipliedArgb(int index) {
+        return premultiplied[index & 0xFF];
+    }
+
+    public int levels() {
+        return premultiplied.length;
+    }
+
+    public double getRed() {
+        return red;
+    }
+
+    public double getGreen() {
+        return green;
+    }
+
+    public double getBlue() {
+        return blue;
+    }
+
+    public float getFadeTtl() {
+        return fadeTtl;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,92 @@
+package engine.src;
+
+import java.util.concurrent.TimeUnit;
+
+public class BackendSelector {
+    public enum Backend {
+        SEQUENTIAL, PARALLEL, DISTRIBUTIVE
+    }
+
+    private static final double SMOOTHING = 0.1;
+    private static final double SCALE_UP_LOAD = 0.5;
+    private static final double SCALE_DOWN_POPULATION = 0.5;
+    private static final int MIN_PARALLEL_POPULATION = 20_000;
+    private static final int SETTLE_FRAMES = 30;
+    private static final int COOLDOWN_FRAMES = 120;
+
+    private final long budgetNanos;
+    private final int[] scaledUpAt = new int[Backend.values().length];
+    private double average;
+    private int pressure;
+    private int cooldown;
+
+    public BackendSelector(long budget, TimeUnit unit) {
+        this.budgetNanos = unit.toNanos(budget);
+    }
+
+    // Scales up once the smoothed update cost passes half the frame budget and back down once the population falls
+    // to half of what it was on the way up; a move needs SETTLE_FRAMES in a row and is followed by a cooldown.
+    public Backend select(Backend current, int population, long frameNanos, int parallelism, int workers) {
+        average = average == 0 ? frameNanos : average + SMOOTHING * (frameNanos - average);
+        if (current == Backend.DISTRIBUTIVE && workers == 0) {
+            return settle(current, smallest(population, parallelism), population, true);
+        }
+        if (cooldown > 0) {
+            cooldown--;
+            return current;
+        }
+        boolean loaded = average > budgetNanos * SCALE_UP_LOAD;
+        Backend wanted = current;
+        switch (current) {
+            case SEQUENTIAL:
+                if (loaded && parallelism > 1 && population >= MIN_PARALLEL_POPULATION) {
+                    wanted = Backend.PARALLEL;
+                } else if (loaded && workers > 0 && population >= MIN_PARALLEL_POPULATION) {
+                    wanted = Backend.DISTRIBUTIVE;
+                }
+                break;
+            case PARALLEL:
+                if (loaded && workers > 0) {
+                    wanted = Backend.DISTRIBUTIVE;
+                } else if (parallelism <= 1 || shrunk(Backend.PARALLEL, population)) {
+                    wanted = Backend.SEQUENTIAL;
+                }
+                break;
+            case DISTRIBUTIVE:
+                if (shrunk(Backend.DISTRIBUTIVE, population)) {
+                    wanted = smallest(population, parallelism);
+                }
+                break;
+        }
+        return settle(current, wanted, population, false);
+    }
+
+    public double getAverageNanos() {
+        return average;
+    }
+
+    private Backend settle(Backend current, Backend wanted, int population, boolean immediate) {
+        if (wanted == current) {
+            pressure = 0;
+            return current;
+        }
+        if (!immediate && ++pressure < SETTLE_FRAMES) {
+            return current;
+        }
+        if (wanted.ordinal() > current.ordinal()) {
+            scaledUpAt[wanted.ordinal()] = population;
+        }
+        pressure = 0;
+        cooldown = COOLDOWN_FRAMES;
+        average = 0;
+        return wanted;
+    }
+
+    private boolean shrunk(Backend backend, int population) {
+        return population < Math.max(MIN_PARALLEL_POPULATION, scaledUpAt[backend.ordinal()]) * SCALE_DOWN_POPULATION;
+    }
+
+    private static Backend smallest(int population, int parallelism) {
+        return parallelism > 1 && population >= MIN_PARALLEL_POPULATION ? Backend.PARALLEL : Backend.SEQUENTIAL;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,82 @@
+package engine.src;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BoundsPolicy {
+    public enum Mode { RETIRE, CLAMP, WRAP }
+
+    private final Mode mode;
+    private final double width, height;
+    private final double margin;
+    private volatile int affected;
+
+    public BoundsPolicy(Mode mode, double width, double height) {
+        this(mode, width, height, 0);
+    }
+
+    public BoundsPolicy(Mode mode, double width, double height, double margin) {
+        this.mode = mode;
+        this.width = width;
+        this.height = height;
+        this.margin = margin;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public int getAffected() {
+        return affected;
+    }
+
+    public int getRetired() {
+        return mode == Mode.RETIRE ? affected : 0;
+    }
+
+    public boolean apply(ParticleStore store) {
+        affected = run(store, 0, store.size());
+        return true;
+    }
+
+    public boolean apply(ParticleStore store, FrameScheduler scheduler) {
+        AtomicInteger count = new AtomicInteger();
+        boolean completed = scheduler.forEach(store.size(), (start, end) -> count.addAndGet(run(store, start, end)), 1, TimeUnit.SECONDS);
+        affected = count.get();
+        return completed;
+    }
+
+    private int run(ParticleStore store, int start, int end) {
+        int count = 0;
+        for (int i = start; i < end; i++) {
+            double x = store.x(i);
+            double y = store.y(i);
+            switch (mode) {
+                case RETIRE:
+                    // Gravity pulls dy positive, so only the top edge can be re-entered.
+                    if ((x < -margin && store.dx(i) <= 0) || (x >= width && store.dx(i) >= 0) || (y >= height && store.dy(i) >= 0)) {
+                        if (store.isAlive(i)) {
+                            store.retire(i);
+                            count++;
+                        }
+                    }
+                    break;
+                case CLAMP:
+                    double cx = Math.max(0, Math.min(width - margin, x));
+                    double cy = Math.max(0, Math.min(height - margin, y));
+                    if (cx != x || cy != y) {
+                        store.set(i, cx, cy, cx != x ? 0 : store.dx(i), cy != y ? 0 : store.dy(i), store.ttl(i));
+                        count++;
+                    }
+                    break;
+                case WRAP:
+                    if (x < 0 || x >= width || y < 0 || y >= height) {
+                        store.set(i, x - width * Math.floor(x / width), y - height * Math.floor(y / height), store.dx(i), store.dy(i), store.ttl(i));
+                        count++;
+                    }
+                    break;
+            }
+        }
+        return count;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,97 @@
+package engine.src;
+
+import java.util.concurrent.TimeUnit;
+
+public class CollisionPass {
+    private final SpatialGrid grid;
+    private final double radius;
+    private final double stiffness;
+
+    public CollisionPass(double width, double height, double radius, double stiffness) {
+        this.grid = new SpatialGrid(width, height, radius);
+        this.radius = radius;
+        this.stiffness = stiffness;
+    }
+
+    public SpatialGrid getGrid() {
+        return grid;
+    }
+
+    public boolean apply(ParticleStore store) {
+        grid.rebuild(store);
+        new Repulsion(store).run(0, store.size());
+        return true;
+    }
+
+    public boolean apply(ParticleStore store, FrameScheduler scheduler) {
+        if (!grid.rebuild(store, scheduler)) {
+            return false;
+        }
+        return scheduler.forEach(store.size(), (start, end) -> new Repulsion(store).run(start, end), 1, TimeUnit.SECONDS);
+    }
+
+    // O(n^2) reference for the grid; same bounds rule, so both passes apply the same forces.
+    public boolean applyDirect(ParticleStore store, FrameScheduler scheduler) {
+        return scheduler.forEach(store.size(), (start, end) -> new Repulsion(store).runDirect(start, end), 1, TimeUnit.SECONDS);
+    }
+
+    private class Repulsion implements SpatialGrid.NeighborVisitor {
+        private final ParticleStore store;
+        private double ax, ay;
+
+        Repulsion(ParticleStore store) {
+            this.store = store;
+        }
+
+        void run(int start, int end) {
+            for (int i = start; i < end; i++) {
+                ax = 0;
+                ay = 0;
+                if (grid.neighbors(i, radius, this) > 0) {
+                    store.accelerate(i, ax, ay);
+                }
+            }
+        }
+
+        void runDirect(int start, int end) {
+            int size = store.size();
+            double radiusSquared = radius * radius;
+            for (int i = start; i < end; i++) {
+                double x = store.x(i);
+                double y = store.y(i);
+                if (!grid.contains(x, y)) {
+                    continue;
+                }
+                ax = 0;
+                ay = 0;
+                int found = 0;
+                for (int j = 0; j < size; j++) {
+                    if (j == i) {
+                        continue;
+                    }
+                    double dx = store.x(j) - x;
+                    double dy = store.y(j) - y;
+                    double distanceSquared = dx * dx + dy * dy;
+                    if (distanceSquared <= radiusSquared && grid.contains(store.x(j), store.y(j))) {
+                        visit(i, j, dx, dy, distanceSquared);
+                        found++;
+                    }
+                }
+                if (found > 0) {
+                    store.accelerate(i, ax, ay);
+                }
+            }
+        }
+
+        @Override
+        public void visit(int index, int neighbor, double dx, double dy, double distanceSquared) {
+            if (distanceSquared == 0) {
+                return;
+            }
+            double distance = Math.sqrt(distanceSquared);
+            double push = stiffness * (radius - distance) / (radius * distance);
+            ax -= dx * push;
+            ay -= dy * push;
+        }
+    }
+}
\ No newline at end of file
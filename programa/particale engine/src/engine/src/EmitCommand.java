@@ -0,0 +1,75 @@
+package engine.src;
+
+import java.util.SplittableRandom;
+
+public class EmitCommand {
+    public static final int BYTES = 2 * Double.BYTES + 2 * Integer.BYTES + Long.BYTES + Float.BYTES;
+
+    private final double x, y;
+    private final int count;
+    private final long seed;
+    private final float ttl;
+    private final int age;
+
+    public EmitCommand(double x, double y, int count, long seed, float ttl) {
+        this(x, y, count, seed, ttl, 0);
+    }
+
+    public EmitCommand(double x, double y, int count, long seed, float ttl, int age) {
+        this.x = x;
+        this.y = y;
+        this.count = count;
+        this.seed = seed;
+        this.ttl = ttl;
+        this.age = age;
+    }
+
+    public EmitCommand aged(int age) {
+        return new EmitCommand(x, y, count, seed, ttl, age);
+    }
+
+    public void spawnInto(ParticleStore store) {
+        if (age == 0) {
+            spawn(store);
+            return;
+        }
+        ParticleStore aged = new ParticleStore(count);
+        aged.setIntegrator(store.getIntegrator());
+        spawn(aged);
+        for (int step = 0; step < age; step++) {
+            aged.integrate(0, aged.size());
+        }
+        store.ensureCapacity(store.size() + count);
+        for (int i = 0; i < aged.size(); i++) {
+            store.add(aged.x(i), aged.y(i), aged.dx(i), aged.dy(i), aged.ttl(i));
+        }
+    }
+
+    private void spawn(ParticleStore store) {
+        ParticleSpawner.spawn(store, x, y, count, ttl, new SplittableRandom(seed), FrameScheduler.shared());
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public float getTtl() {
+        return ttl;
+    }
+
+    public int getAge() {
+        return age;
+    }
+}
\ No newline at end of file
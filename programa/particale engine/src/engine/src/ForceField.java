@@ -0,0 +1,355 @@
+package engine.src;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+public class ForceField {
+    private static final int LEVELS = 15;
+    private static final int TOP_LEVELS = 3;
+    private static final int LEAF_SIZE = 8;
+    private static final int CELL_LIMIT = (1 << LEVELS) - 1;
+
+    private volatile double strength;
+    private volatile double theta;
+    private final double softening;
+    private volatile long timeoutNanos = TimeUnit.SECONDS.toNanos(1);
+    private volatile double[] attractors = new double[0];
+
+    private long[] keys = new long[1024];
+    private int[] index = new int[1024];
+    private double[] sortedX = new double[1024];
+    private double[] sortedY = new double[1024];
+    private final Node[] subtrees = new Node[1 << (2 * TOP_LEVELS)];
+    private Node root;
+
+    public ForceField(double strength, double theta, double softening) {
+        this.strength = strength;
+        this.theta = theta;
+        this.softening = softening;
+    }
+
+    public double getStrength() {
+        return strength;
+    }
+
+    public void setStrength(double strength) {
+        this.strength = strength;
+    }
+
+    public double getTheta() {
+        return theta;
+    }
+
+    public void setTheta(double theta) {
+        this.theta = theta;
+    }
+
+    public void setTimeout(long timeout, TimeUnit unit) {
+        this.timeoutNanos = unit.toNanos(timeout);
+    }
+
+    public synchronized void addAttractor(double x, double y, double strength) {
+        double[] grown = Arrays.copyOf(attractors, attractors.length + 3);
+        grown[attractors.length] = x;
+        grown[attractors.length + 1] = y;
+        grown[attractors.length + 2] = strength;
+        attractors = grown;
+    }
+
+    public synchronized void clearAttractors() {
+        attractors = new double[0];
+    }
+
+    public boolean apply(ParticleStore store) {
+        return apply(store, null);
+    }
+
+    public boolean apply(ParticleStore store, FrameScheduler scheduler) {
+        int size = store.size();
+        double g = strength;
+        double openingSquared = theta * theta;
+        double[] fixed = attractors;
+        if (g != 0 && size > 1 && !build(store, scheduler)) {
+            return false;
+        }
+        return forEach(scheduler, size, (start, end) -> {
+            Node[] stack = new Node[4 * LEVELS + 4];
+            double[] a = new double[2];
+            for (int k = start; k < end; k++) {
+                int i = g != 0 && size > 1 ? index[k] : k;
+                double px = store.x(i);
+                double py = store.y(i);
+                a[0] = 0;
+                a[1] = 0;
+                if (g != 0 && size > 1) {
+                    treeForce(k, px, py, g, openingSquared, stack, a);
+                }
+                attractorForce(fixed, px, py, a);
+                store.accelerate(i, a[0], a[1]);
+            }
+        });
+    }
+
+    public boolean applyDirect(ParticleStore store, FrameScheduler scheduler) {
+        int size = store.size();
+        double g = strength;
+        double[] fixed = attractors;
+        return forEach(scheduler, size, (start, end) -> {
+            double[] a = new double[2];
+            for (int i = start; i < end; i++) {
+                double px = store.x(i);
+                double py = store.y(i);
+                a[0] = 0;
+                a[1] = 0;
+                if (g != 0) {
+                    for (int j = 0; j < size; j++) {
+                        if (j != i) {
+                            pull(store.x(j) - px, store.y(j) - py, g, a);
+                        }
+                    }
+                }
+                attractorForce(fixed, px, py, a);
+                store.accelerate(i, a[0], a[1]);
+            }
+        });
+    }
+
+    private boolean build(ParticleStore store, FrameScheduler scheduler) {
+        int size = store.size();
+        if (keys.length < size) {
+            int capacity = Math.max(size, keys.length * 2);
+            keys = new long[capacity];
+            index = new int[capacity];
+            sortedX = new double[capacity];
+            sortedY = new double[capacity];
+        }
+
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < size; i++) {
+            double x = store.x(i), y = store.y(i);
+            minX = Math.min(minX, x);
+            minY = Math.min(minY, y);
+            maxX = Math.max(maxX, x);
+            maxY = Math.max(maxY, y);
+        }
+        double rootSize = Math.max(Math.max(maxX - minX, maxY - minY), softening) * (1 + 1e-9);
+        double scale = (CELL_LIMIT + 1) / rootSize;
+        double originX = minX, originY = minY;
+
+        boolean coded = forEach(scheduler, size, (start, end) -> {
+            for (int i = start; i < end; i++) {
+                int cx = Math.min(CELL_LIMIT, (int) ((store.x(i) - originX) * scale));
+                int cy = Math.min(CELL_LIMIT, (int) ((store.y(i) - originY) * scale));
+                keys[i] = (long) interleave(cx, cy) << 32 | i;
+            }
+        });
+        if (!coded) {
+            return false;
+        }
+        if (scheduler == null) {
+            Arrays.sort(keys, 0, size);
+        } else {
+            Arrays.parallelSort(keys, 0, size);
+        }
+
+        boolean sorted = forEach(scheduler, size, (start, end) -> {
+            for (int k = start; k < end; k++) {
+                int i = (int) keys[k];
+                index[k] = i;
+                sortedX[k] = store.x(i);
+                sortedY[k] = store.y(i);
+            }
+        });
+        if (!sorted) {
+            return false;
+        }
+
+        int shift = 2 * (LEVELS - TOP_LEVELS);
+        double subtreeSize = rootSize / (1 << TOP_LEVELS);
+        boolean built = forEach(scheduler, subtrees.length, 1, (first, last) -> {
+            for (int cell = first; cell < last; cell++) {
+                int start = lowerBound(0, size, cell, shift);
+                int end = lowerBound(start, size, cell + 1, shift);
+                subtrees[cell] = start == end ? null : build(TOP_LEVELS, start, end,
+                        originX + deinterleave(cell) * subtreeSize, originY + deinterleave(cell >>> 1) * subtreeSize, subtreeSize);
+            }
+        });
+        if (!built) {
+            return false;
+        }
+        root = assemble(0, 0, originX, originY, rootSize);
+        return true;
+    }
+
+    private Node build(int level, int start, int end, double x, double y, double size) {
+        Node node = new Node(x, y, size, start, end);
+        if (end - start <= LEAF_SIZE || level == LEVELS) {
+            for (int k = start; k < end; k++) {
+                node.x += sortedX[k];
+                node.y += sortedY[k];
+            }
+            node.mass = end - start;
+            node.x /= node.mass;
+            node.y /= node.mass;
+            return node;
+        }
+        int shift = 2 * (LEVELS - level - 1);
+        long prefix = keys[start] >>> 32 >>> shift & ~3L;
+        double half = size / 2;
+        node.children = new Node[4];
+        int from = start;
+        for (int quadrant = 0; quadrant < 4; quadrant++) {
+            int to = quadrant == 3 ? end : lowerBound(from, end, prefix + quadrant + 1, shift);
+            if (from < to) {
+                Node child = build(level + 1, from, to, x + (quadrant & 1) * half, y + (quadrant >> 1) * half, half);
+                node.children[quadrant] = child;
+                node.add(child);
+            }
+            from = to;
+        }
+        node.finish();
+        return node;
+    }
+
+    private Node assemble(int level, int cell, double x, double y, double size) {
+        if (level == TOP_LEVELS) {
+            return subtrees[cell];
+        }
+        Node node = new Node(x, y, size, 0, 0);
+        node.children = new Node[4];
+        double half = size / 2;
+        for (int quadrant = 0; quadrant < 4; quadrant++) {
+            Node child = assemble(level + 1, cell << 2 | quadrant, x + (quadrant & 1) * half, y + (quadrant >> 1) * half, half);
+            node.children[quadrant] = child;
+            if (child != null) {
+                node.add(child);
+            }
+        }
+        if (node.mass == 0) {
+            return null;
+        }
+        node.finish();
+        return node;
+    }
+
+    private void treeForce(int self, double px, double py, double g, double openingSquared, Node[] stack, double[] a) {
+        int top = 0;
+        stack[top++] = root;
+        while (top > 0) {
+            Node node = stack[--top];
+            if (node.children == null) {
+                for (int k = node.start; k < node.end; k++) {
+                    if (k != self) {
+                        pull(sortedX[k] - px, sortedY[k] - py, g, a);
+                    }
+                }
+                continue;
+            }
+            double dx = node.x - px;
+            double dy = node.y - py;
+            double distanceSquared = dx * dx + dy * dy;
+            if (node.size * node.size < openingSquared * distanceSquared && !node.contains(px, py)) {
+                pull(dx, dy, g * node.mass, a);
+            } else {
+                for (Node child : node.children) {
+                    if (child != null) {
+                        stack[top++] = child;
+                    }
+                }
+            }
+        }
+    }
+
+    private void attractorForce(double[] fixed, double px, double py, double[] a) {
+        for (int k = 0; k < fixed.length; k += 3) {
+            pull(fixed[k] - px, fixed[k + 1] - py, fixed[k + 2], a);
+        }
+    }
+
+    private void pull(double dx, double dy, double g, double[] a) {
+        double distanceSquared = dx * dx + dy * dy + softening * softening;
+        double scale = g / (distanceSquared * Math.sqrt(distanceSquared));
+        a[0] += dx * scale;
+        a[1] += dy * scale;
+    }
+
+    private int lowerBound(int from, int to, long prefix, int shift) {
+        while (from < to) {
+            int mid = (from + to) >>> 1;
+            if (keys[mid] >>> 32 >>> shift < prefix) {
+                from = mid + 1;
+            } else {
+                to = mid;
+            }
+        }
+        return from;
+    }
+
+    private static int interleave(int x, int y) {
+        return spread(x) | spread(y) << 1;
+    }
+
+    private static int spread(int v) {
+        v = (v | v << 8) & 0x00FF00FF;
+        v = (v | v << 4) & 0x0F0F0F0F;
+        v = (v | v << 2) & 0x33333333;
+        v = (v | v << 1) & 0x55555555;
+        return v;
+    }
+
+    private static int deinterleave(int v) {
+        v &= 0x55555555;
+        v = (v | v >>> 1) & 0x33333333;
+        v = (v | v >>> 2) & 0x0F0F0F0F;
+        v = (v | v >>> 4) & 0x00FF00FF;
+        v = (v | v >>> 8) & 0x0000FFFF;
+        return v;
+    }
+
+    private boolean forEach(FrameScheduler scheduler, int size, FrameScheduler.RangeTask task) {
+        if (scheduler == null) {
+            task.run(0, size);
+            return true;
+        }
+        return scheduler.forEach(size, task, timeoutNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private boolean forEach(FrameScheduler scheduler, int size, int threshold, FrameScheduler.RangeTask task) {
+        if (scheduler == null) {
+            task.run(0, size);
+            return true;
+        }
+        return scheduler.forEach(size, threshold, task, timeoutNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static final class Node {
+        final double left, top, size;
+        final int start, end;
+        double mass, x, y;
+        Node[] children;
+
+        Node(double left, double top, double size, int start, int end) {
+            this.left = left;
+            this.top = top;
+            this.size = size;
+            this.start = start;
+            this.end = end;
+        }
+
+        void add(Node child) {
+            mass += child.mass;
+            x += child.x * child.mass;
+            y += child.y * child.mass;
+        }
+
+        void finish() {
+            x /= mass;
+            y /= mass;
+        }
+
+        boolean contains(double px, double py) {
+            return px >= left && px < left + size && py >= top && py < top + size;
+        }
+    }
+}
\ No newline at end of file
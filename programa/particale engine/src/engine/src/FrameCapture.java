@@ -0,0 +1,99 @@
+package engine.src;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+// Off unless -Dcapture=<directory> is set. Frames go to <name>-<start time>-<segment>.prec, a new segment starts
+// once the current one passes capture.segmentMb, and only the newest capture.segments segments are kept.
+public class FrameCapture implements Closeable {
+    public static final String DIRECTORY_PROPERTY = "capture";
+    public static final String SEGMENT_MB_PROPERTY = "capture.segmentMb";
+    public static final String SEGMENTS_PROPERTY = "capture.segments";
+    public static final int DEFAULT_SEGMENT_MB = 256;
+    public static final int DEFAULT_SEGMENTS = 4;
+    public static final String SUFFIX = ".prec";
+    private static final DateTimeFormatter STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final Path directory;
+    private final String prefix;
+    private final long segmentBytes;
+    private final int segments;
+    private final Deque<Path> written = new ArrayDeque<>();
+    private FrameRecorder recorder;
+    private int segment;
+
+    public FrameCapture(Path directory, String name, long segmentBytes, int segments) throws IOException {
+        if (segments < 1) {
+            throw new IllegalArgumentException("Capture needs at least one segment: " + segments);
+        }
+        this.directory = directory;
+        this.prefix = name + "-" + LocalDateTime.now().format(STAMP) + "-";
+        this.segmentBytes = segmentBytes;
+        this.segments = segments;
+        Files.createDirectories(directory);
+        rotate();
+    }
+
+    public static FrameCapture fromProperties(String name) throws IOException {
+        String directory = System.getProperty(DIRECTORY_PROPERTY);
+        if (directory == null) {
+            return null;
+        }
+        long segmentBytes = Integer.getInteger(SEGMENT_MB_PROPERTY, DEFAULT_SEGMENT_MB) * (1L << 20);
+        return new FrameCapture(Paths.get(directory), name, segmentBytes, Integer.getInteger(SEGMENTS_PROPERTY, DEFAULT_SEGMENTS));
+    }
+
+    public static Path latest(Path directory, String name) throws IOException {
+        Path newest = null;
+        FileTime newestTime = null;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, name + "-*" + SUFFIX)) {
+            for (Path file : files) {
+                FileTime time = Files.getLastModifiedTime(file);
+                if (newest == null || time.compareTo(newestTime) > 0) {
+                    newest = file;
+                    newestTime = time;
+                }
+            }
+        }
+        return newest;
+    }
+
+    public void record(FrameSnapshot snapshot, long nanos) throws IOException {
+        recorder.record(snapshot, nanos);
+        if (recorder.getBytesWritten() >= segmentBytes) {
+            rotate();
+        }
+    }
+
+    public Path getCurrentSegment() {
+        return written.peekLast();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (recorder != null) {
+            FrameRecorder closing = recorder;
+            recorder = null;
+            closing.close();
+        }
+    }
+
+    private void rotate() throws IOException {
+        close();
+        Path file = directory.resolve(prefix + String.format("%03d", segment++) + SUFFIX);
+        recorder = new FrameRecorder(file);
+        written.addLast(file);
+        while (written.size() > segments) {
+            Files.deleteIfExists(written.removeFirst());
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package engine.src;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+// Not thread-safe: each encoding thread keeps its own instance and reuses its scanline and deflate buffers.
+public class FrameEncoder {
+    public enum Format {
+        PNG("png"), RGBA("rgba");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        public String extension() {
+            return extension;
+        }
+    }
+
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    private final int width, height;
+    private final Deflater deflater;
+    private final CRC32 crc = new CRC32();
+    private final byte[] scanlines;
+    private byte[] compressed;
+
+    public FrameEncoder(int width, int height) {
+        this(width, height, Deflater.BEST_SPEED);
+    }
+
+    public FrameEncoder(int width, int height, int level) {
+        this.width = width;
+        this.height = height;
+        this.deflater = new Deflater(level);
+        this.scanlines = new byte[height * (1 + width * 4)];
+        this.compressed = new byte[scanlines.length / 4 + 1024];
+    }
+
+    public void write(Format format, int[] pixels, OutputStream out) throws IOException {
+        if (format == Format.PNG) {
+            writePng(pixels, out);
+        } else {
+            writeRgba(pixels, out);
+        }
+    }
+
+    // Straight (non-premultiplied) 8-bit RGBA, row-major from the top-left, no header.
+    public void writeRgba(int[] pixels, OutputStream out) throws IOException {
+        unpremultiply(pixels, false);
+        out.write(scanlines, 0, width * height * 4);
+    }
+
+    public void writePng(int[] pixels, OutputStream out) throws IOException {
+        unpremultiply(pixels, true);
+        deflater.reset();
+        deflater.setInput(scanlines);
+        deflater.finish();
+        int length = 0;
+        while (!deflater.finished()) {
+            if (length == compressed.length) {
+                compressed = Arrays.copyOf(compressed, compressed.length * 2);
+            }
+            length += deflater.deflate(compressed, length, compressed.length - length);
+        }
+
+        out.write(PNG_SIGNATURE);
+        byte[] header = new byte[13];
+        putInt(header, 0, width);
+        putInt(header, 4, height);
+        header[8] = 8;
+        header[9] = 6;
+        writeChunk(out, "IHDR", header, header.length);
+        writeChunk(out, "IDAT", compressed, length);
+        writeChunk(out, "IEND", compressed, 0);
+    }
+
+    public void close() {
+        deflater.end();
+    }
+
+    // The rasterizer produces premultiplied ARGB; both formats store straight alpha.
+    private void unpremultiply(int[] pixels, boolean filtered) {
+        int at = 0;
+        for (int row = 0; row < height; row++) {
+            if (filtered) {
+                scanlines[at++] = 0;
+            }
+            for (int i = row * width, end = i + width; i < end; i++) {
+                int argb = pixels[i];
+                int a = argb >>> 24;
+                if (a == 0) {
+                    scanlines[at++] = 0;
+                    scanlines[at++] = 0;
+                    scanlines[at++] = 0;
+                    scanlines[at++] = 0;
+                    continue;
+                }
+                scanlines[at++] = (byte) Math.min(255, (((argb >> 16) & 0xFF) * 255 + a / 2) / a);
+                scanlines[at++] = (byte) Math.min(255, (((argb >> 8) & 0xFF) * 255 + a / 2) / a);
+                scanlines[at++] = (byte) Math.min(255, ((argb & 0xFF) * 255 + a / 2) / a);
+                scanlines[at++] = (byte) a;
+            }
+        }
+    }
+
+    private void writeChunk(OutputStream out, String type, byte[] data, int length) throws IOException {
+        byte[] prefix = new byte[8];
+        putInt(prefix, 0, length);
+        for (int i = 0; i < 4; i++) {
+            prefix[4 + i] = (byte) type.charAt(i);
+        }
+        crc.reset();
+        crc.update(prefix, 4, 4);
+        crc.update(data, 0, length);
+        byte[] suffix = new byte[4];
+        putInt(suffix, 0, (int) crc.getValue());
+        out.write(prefix);
+        out.write(data, 0, length);
+        out.write(suffix);
+    }
+
+    private static void putInt(byte[] buffer, int at, int value) {
+        buffer[at] = (byte) (value >>> 24);
+        buffer[at + 1] = (byte) (value >>> 16);
+        buffer[at + 2] = (byte) (value >>> 8);
+        buffer[at + 3] = (byte) value;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,31 @@
+package engine.src;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("particles.Frame")
+@Label("Particle Frame")
+@Category({"Particle Engine", "Frame"})
+@Description("Population, allocation and culling at the end of a simulation frame")
+@StackTrace(false)
+class FrameEvent extends jdk.jfr.Event {
+    @Label("Frame")
+    long frame;
+
+    @Label("Population")
+    int population;
+
+    @Label("Allocated")
+    @DataAmount
+    long allocated;
+
+    @Label("Culled")
+    long culled;
+
+    @Label("Retired")
+    long retired;
+}
\ No newline at end of file
@@ -0,0 +1,189 @@
+package engine.src;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class FrameGovernor {
+    private static final double SMOOTHING = 0.1;
+    private static final double HEADROOM = 0.75;
+    private static final int COOLDOWN_FRAMES = 15;
+    private static final int RESTORE_FRAMES = 60;
+    private static final double MIN_EMIT_SCALE = 0.125;
+    private static final int MAX_DRAW_STRIDE = 8;
+    private static final double MIN_DOT_SCALE = 0.5;
+
+    private final long budgetNanos;
+    private final GovernedSink sink = new GovernedSink();
+    private final AtomicLong throttles = new AtomicLong();
+    private final AtomicLong restores = new AtomicLong();
+    private final Cost simulation = new Cost("simulation");
+    private final Cost rendering = new Cost("render");
+    private volatile double emitScale = 1;
+    private volatile int drawStride = 1;
+    private volatile double dotScale = 1;
+    private double emitCarry;
+
+    public FrameGovernor(long budget, TimeUnit unit) {
+        this.budgetNanos = unit.toNanos(budget);
+    }
+
+    // Simulation-thread cost per step (simulate plus snapshot draw); only the emit rate brings it down.
+    public void observe(long frameNanos) {
+        observe(simulation, frameNanos);
+    }
+
+    // Rasterize and present cost on the display thread; draw stride and dot size are the levers that reduce it.
+    public void observeRender(long renderNanos) {
+        observe(rendering, renderNanos);
+    }
+
+    private void observe(Cost cost, long nanos) {
+        double smoothed = cost.average == 0 ? nanos : cost.average + SMOOTHING * (nanos - cost.average);
+        cost.average = smoothed;
+        if (cost.cooldown > 0) {
+            cost.cooldown--;
+            return;
+        }
+        if (smoothed > budgetNanos) {
+            cost.calmFrames = 0;
+            if (cost == simulation ? degradeEmission() : degradeDrawing()) {
+                throttles.incrementAndGet();
+                decided(cost, "throttle");
+            }
+        } else if (smoothed < budgetNanos * HEADROOM && ++cost.calmFrames >= RESTORE_FRAMES) {
+            cost.calmFrames = 0;
+            if (cost == simulation ? restoreEmission() : restoreDrawing()) {
+                restores.incrementAndGet();
+                decided(cost, "restore");
+            }
+        }
+    }
+
+    public int emitCount(int requested) {
+        double wanted = requested * emitScale + emitCarry;
+        int count = (int) wanted;
+        emitCarry = wanted - count;
+        return count;
+    }
+
+    public ParticleSink govern(ParticleSink target) {
+        sink.target = target;
+        sink.seen = 0;
+        sink.stride = drawStride;
+        sink.scale = dotScale;
+        return sink;
+    }
+
+    public long getBudgetNanos() {
+        return budgetNanos;
+    }
+
+    public long getAverageFrameNanos() {
+        return (long) simulation.average;
+    }
+
+    public long getAverageRenderNanos() {
+        return (long) rendering.average;
+    }
+
+    public double getEmitScale() {
+        return emitScale;
+    }
+
+    public int getDrawStride() {
+        return drawStride;
+    }
+
+    public double getDotScale() {
+        return dotScale;
+    }
+
+    public long getThrottles() {
+        return throttles.get();
+    }
+
+    public long getRestores() {
+        return restores.get();
+    }
+
+    private boolean degradeEmission() {
+        if (emitScale > MIN_EMIT_SCALE) {
+            emitScale = Math.max(MIN_EMIT_SCALE, emitScale / 2);
+            return true;
+        }
+        return false;
+    }
+
+    private boolean restoreEmission() {
+        if (emitScale < 1) {
+            emitScale = Math.min(1, emitScale * 2);
+            return true;
+        }
+        return false;
+    }
+
+    private boolean degradeDrawing() {
+        if (drawStride < MAX_DRAW_STRIDE) {
+            drawStride *= 2;
+        } else if (dotScale > MIN_DOT_SCALE) {
+            dotScale = Math.max(MIN_DOT_SCALE, dotScale - 0.25);
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    private boolean restoreDrawing() {
+        if (dotScale < 1) {
+            dotScale = Math.min(1, dotScale + 0.25);
+        } else if (drawStride > 1) {
+            drawStride /= 2;
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    private void decided(Cost cost, String action) {
+        cost.cooldown = COOLDOWN_FRAMES;
+        GovernorEvent event = new GovernorEvent();
+        if (event.isEnabled()) {
+            event.action = action;
+            event.cost = cost.name;
+            event.frameNanos = (long) cost.average;
+            event.budgetNanos = budgetNanos;
+            event.emitScale = emitScale;
+            event.drawStride = drawStride;
+            event.dotScale = dotScale;
+            event.commit();
+        }
+    }
+
+    // Each cost is observed from a single thread: the simulation loop or the display.
+    private static class Cost {
+        final String name;
+        volatile double average;
+        int cooldown;
+        int calmFrames;
+
+        Cost(String name) {
+            this.name = name;
+        }
+    }
+
+    private static class GovernedSink implements ParticleSink {
+        ParticleSink target;
+        int seen;
+        int stride;
+        double scale;
+
+        @Override
+        public void fill(double x, double y, double size, AlphaPalette palette, int shade) {
+            if (seen++ % stride == 0) {
+                double scaled = size * scale;
+                double inset = (size - scaled) / 2;
+                target.fill(x + inset, y + inset, scaled, palette, shade);
+            }
+        }
+    }
+}
\ No newline at end of file
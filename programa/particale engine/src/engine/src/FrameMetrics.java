@@ -0,0 +1,218 @@
+package engine.src;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class FrameMetrics {
+    public enum Phase { EMIT, UPDATE, COMPACT, DRAW, SEND, RECEIVE }
+
+    private static final Phase[] PHASES = Phase.values();
+    private static final com.sun.management.ThreadMXBean THREADS = allocationBean();
+
+    private final LatencyHistogram[] phases = new LatencyHistogram[PHASES.length];
+    private final AtomicLong frames = new AtomicLong();
+    private final AtomicLong allocated = new AtomicLong();
+    private final AtomicLong culling = new AtomicLong();
+    private final AtomicLong retiring = new AtomicLong();
+    private volatile int population;
+    private volatile long culled;
+    private volatile long retired;
+    private volatile FrameGovernor governor;
+    private final List<FrameScheduler> schedulers = new CopyOnWriteArrayList<>();
+    private Map<Long, Long> lastAllocated = new HashMap<>();
+    private Map<Long, Long> nextAllocated = new HashMap<>();
+    private ScheduledExecutorService exporter;
+    private PrintWriter csv;
+
+    public FrameMetrics() {
+        for (int i = 0; i < phases.length; i++) {
+            phases[i] = new LatencyHistogram();
+        }
+    }
+
+    public long begin() {
+        return System.nanoTime();
+    }
+
+    public void end(Phase phase, long start) {
+        long nanos = System.nanoTime() - start;
+        phases[phase.ordinal()].record(nanos);
+        PhaseEvent event = new PhaseEvent();
+        if (event.isEnabled()) {
+            event.phase = phase.name();
+            event.nanos = nanos;
+            event.commit();
+        }
+    }
+
+    public void addCulled(int count) {
+        culling.addAndGet(count);
+    }
+
+    public void addRetired(int count) {
+        retiring.addAndGet(count);
+    }
+
+    public void endFrame(int population) {
+        this.population = population;
+        this.culled = culling.getAndSet(0);
+        this.retired = retiring.getAndSet(0);
+        long frame = frames.incrementAndGet();
+        long delta = THREADS == null ? 0 : allocatedSinceLastFrame(frame == 1);
+        FrameEvent event = new FrameEvent();
+        if (event.isEnabled()) {
+            event.frame = frame;
+            event.population = population;
+            event.allocated = delta;
+            event.culled = culled;
+            event.retired = retired;
+            event.commit();
+        }
+    }
+
+    // Allocation is counted on the thread calling endFrame plus every worker of the tracked schedulers.
+    public void trackAllocations(FrameScheduler scheduler) {
+        if (!schedulers.contains(scheduler)) {
+            schedulers.add(scheduler);
+        }
+    }
+
+    private long allocatedSinceLastFrame(boolean baseline) {
+        nextAllocated.clear();
+        sample(new long[] {Thread.currentThread().getId()});
+        for (FrameScheduler scheduler : schedulers) {
+            sample(scheduler.threadIds());
+        }
+        long delta = 0;
+        if (!baseline) {
+            for (Map.Entry<Long, Long> entry : nextAllocated.entrySet()) {
+                Long last = lastAllocated.get(entry.getKey());
+                delta += Math.max(0, entry.getValue() - (last == null ? 0 : last));
+            }
+            allocated.addAndGet(delta);
+        }
+        Map<Long, Long> swap = lastAllocated;
+        lastAllocated = nextAllocated;
+        nextAllocated = swap;
+        return delta;
+    }
+
+    private void sample(long[] ids) {
+        long[] bytes = THREADS.getThreadAllocatedBytes(ids);
+        for (int i = 0; i < ids.length; i++) {
+            if (bytes[i] >= 0) {
+                nextAllocated.putIfAbsent(ids[i], bytes[i]);
+            }
+        }
+    }
+
+    public void setGovernor(FrameGovernor governor) {
+        this.governor = governor;
+    }
+
+    public LatencyHistogram histogram(Phase phase) {
+        return phases[phase.ordinal()];
+    }
+
+    public long getFrames() {
+        return frames.get();
+    }
+
+    public int getPopulation() {
+        return population;
+    }
+
+    public long getCulled() {
+        return culled;
+    }
+
+    public long getRetired() {
+        return retired;
+    }
+
+    public long getAllocatedBytes() {
+        return allocated.get();
+    }
+
+    public synchronized void exportCsv(Path file, long period, TimeUnit unit) throws IOException {
+        stopExport();
+        boolean header = !Files.exists(file) || Files.size(file) == 0;
+        PrintWriter out = csv = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND));
+        if (header) {
+            out.println("time_ms,phase,count,mean_us,p50_us,p90_us,p99_us,max_us,frames,population,allocated_bytes,"
+                    + "emit_scale,draw_stride,dot_scale,throttles,restores,culled,retired");
+            out.flush();
+        }
+        LatencyHistogram[] interval = new LatencyHistogram[PHASES.length];
+        for (int i = 0; i < interval.length; i++) {
+            interval[i] = new LatencyHistogram();
+        }
+        long[] previousAllocated = {allocated.get()};
+        exporter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "metrics-export");
+            thread.setDaemon(true);
+            return thread;
+        });
+        exporter.scheduleAtFixedRate(() -> {
+            long now = System.currentTimeMillis();
+            long allocatedNow = allocated.get();
+            FrameGovernor g = governor;
+            String decisions = g == null ? ",,,," : g.getEmitScale() + "," + g.getDrawStride() + "," + g.getDotScale() + ","
+                    + g.getThrottles() + "," + g.getRestores();
+            for (Phase phase : PHASES) {
+                LatencyHistogram h = interval[phase.ordinal()];
+                h.reset();
+                phases[phase.ordinal()].drainInto(h);
+                out.println(now + "," + phase + "," + h.count() + "," + micros(h.mean()) + ","
+                        + micros(h.percentile(50)) + "," + micros(h.percentile(90)) + ","
+                        + micros(h.percentile(99)) + "," + micros(h.max()) + ","
+                        + frames.get() + "," + population + "," + (allocatedNow - previousAllocated[0]) + "," + decisions
+                        + "," + culled + "," + retired);
+            }
+            previousAllocated[0] = allocatedNow;
+            out.flush();
+            if (out.checkError()) {
+                System.err.println("Metrics export error: failed writing " + file);
+            }
+        }, period, period, unit);
+    }
+
+    public synchronized void stopExport() {
+        if (exporter != null) {
+            exporter.execute(csv::close);
+            exporter.shutdown();
+            exporter = null;
+            csv = null;
+        }
+    }
+
+    private static String micros(long nanos) {
+        return String.valueOf(nanos / 1000.0);
+    }
+
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+            if (threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+                return threads;
+            }
+        }
+        return null;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,277 @@
+package engine.src;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Capture layout: a 16-byte header, then fixed-size chunks of tagged records that never straddle a chunk
+// boundary (a record larger than a chunk starts on a boundary and spans as many as it needs), then an index
+// and a 16-byte trailer written by close(). A capture cut short without a trailer is re-indexed by FrameReplay.
+public class FrameRecorder implements ParticleSink, Closeable {
+    public static final int MAGIC = 0x50524543;
+    public static final int INDEX_MAGIC = 0x50494458;
+    public static final int VERSION = 1;
+    public static final int HEADER_BYTES = 16;
+    public static final int TRAILER_BYTES = 16;
+    public static final int RECORD_HEADER_BYTES = 1 + Integer.BYTES;
+    public static final int DEFAULT_CHUNK_BYTES = 4 << 20;
+    public static final int POSITION_QUANTUM = 8;
+    public static final int SIZE_QUANTUM = 16;
+    public static final byte TAG_FRAME = 1;
+    public static final byte TAG_PALETTE = 2;
+    public static final byte TAG_INDEX = 3;
+    static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    private final FileChannel channel;
+    private final int chunkBytes;
+    private final Map<AlphaPalette, Integer> paletteIds = new IdentityHashMap<>();
+    private final List<AlphaPalette> pendingPalettes = new ArrayList<>();
+    private long[] paletteOffsets = new long[8];
+    private long[] frameOffsets = new long[1024];
+    private long[] frameNanos = new long[1024];
+    private int frames;
+    private long position = HEADER_BYTES;
+    private long origin = -1;
+    private boolean closed;
+
+    private ByteBuffer record = allocate(64 * 1024);
+    private ByteBuffer runs = allocate(1024);
+    private ByteBuffer body = allocate(64 * 1024);
+    private AlphaPalette lastPalette;
+    private int lastPaletteId = -1;
+    private int runPalette = -1;
+    private int runSize = -1;
+    private int runLength;
+    private int runCount;
+    private int count;
+    private int lastX, lastY;
+
+    public FrameRecorder(Path file) throws IOException {
+        this(file, DEFAULT_CHUNK_BYTES);
+    }
+
+    public FrameRecorder(Path file, int chunkBytes) throws IOException {
+        if (chunkBytes < 4096) {
+            throw new IllegalArgumentException("Chunk size must be at least 4096 bytes: " + chunkBytes);
+        }
+        this.chunkBytes = chunkBytes;
+        this.channel = FileChannel.open(file, StandardOpenOption.WRITE,
+                StandardOpenOption.READ, StandardOpenOption.CREATE_NEW);
+        ByteBuffer header = allocate(HEADER_BYTES);
+        header.putInt(MAGIC).putInt(VERSION).putInt(chunkBytes).putInt(POSITION_QUANTUM).flip();
+        write(header, 0);
+    }
+
+    public void record(FrameSnapshot snapshot, long nanos) throws IOException {
+        beginFrame();
+        snapshot.replay(this);
+        endFrame(nanos);
+    }
+
+    public void beginFrame() {
+        runs.clear();
+        body.clear();
+        runPalette = -1;
+        runSize = -1;
+        runLength = 0;
+        runCount = 0;
+        count = 0;
+        lastX = 0;
+        lastY = 0;
+    }
+
+    @Override
+    public void fill(double x, double y, double size, AlphaPalette palette, int shade) {
+        int paletteId = paletteId(palette);
+        int quantizedSize = (int) Math.round(size * SIZE_QUANTUM);
+        if (paletteId != runPalette || quantizedSize != runSize) {
+            closeRun();
+            runPalette = paletteId;
+            runSize = quantizedSize;
+        }
+        int qx = (int) Math.round(x * POSITION_QUANTUM);
+        int qy = (int) Math.round(y * POSITION_QUANTUM);
+        body = ensure(body, 11);
+        putVarint(body, zigzag(qx - lastX));
+        putVarint(body, zigzag(qy - lastY));
+        body.put((byte) shade);
+        lastX = qx;
+        lastY = qy;
+        runLength++;
+        count++;
+    }
+
+    public void endFrame(long nanos) throws IOException {
+        if (closed) {
+            throw new IOException("Recorder is closed");
+        }
+        closeRun();
+        writePalettes();
+        if (origin < 0) {
+            origin = nanos;
+        }
+        long relative = nanos - origin;
+        runs.flip();
+        body.flip();
+        record = ensure(record.clear(), RECORD_HEADER_BYTES + Long.BYTES + 10 + runs.remaining() + body.remaining());
+        record.put(TAG_FRAME).putInt(0).putLong(relative);
+        putVarint(record, count);
+        putVarint(record, runCount);
+        record.put(runs).put(body);
+        if (frames == frameOffsets.length) {
+            frameOffsets = Arrays.copyOf(frameOffsets, frames * 2);
+            frameNanos = Arrays.copyOf(frameNanos, frames * 2);
+        }
+        frameOffsets[frames] = writeRecord(record);
+        frameNanos[frames] = relative;
+        frames++;
+    }
+
+    public int getFrames() {
+        return frames;
+    }
+
+    public long getBytesWritten() {
+        return position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            int palettes = paletteIds.size();
+            ByteBuffer index = allocate(RECORD_HEADER_BYTES + Integer.BYTES * 2 + frames * 2 * Long.BYTES + palettes * Long.BYTES);
+            index.put(TAG_INDEX).putInt(0).putInt(frames);
+            for (int i = 0; i < frames; i++) {
+                index.putLong(frameOffsets[i]).putLong(frameNanos[i]);
+            }
+            index.putInt(palettes);
+            for (int i = 0; i < palettes; i++) {
+                index.putLong(paletteOffsets[i]);
+            }
+            long indexOffset = writeRecord(index);
+            ByteBuffer trailer = allocate(TRAILER_BYTES);
+            trailer.putLong(indexOffset).putInt(frames).putInt(INDEX_MAGIC).flip();
+            write(trailer, position);
+        } finally {
+            channel.close();
+        }
+    }
+
+    private int paletteId(AlphaPalette palette) {
+        if (palette == lastPalette) {
+            return lastPaletteId;
+        }
+        Integer id = paletteIds.get(palette);
+        if (id == null) {
+            id = paletteIds.size();
+            paletteIds.put(palette, id);
+            pendingPalettes.add(palette);
+        }
+        lastPalette = palette;
+        lastPaletteId = id;
+        return id;
+    }
+
+    private void closeRun() {
+        if (runLength == 0) {
+            return;
+        }
+        runs = ensure(runs, 15);
+        putVarint(runs, runLength);
+        putVarint(runs, runPalette);
+        putVarint(runs, runSize);
+        runCount++;
+        runLength = 0;
+    }
+
+    private void writePalettes() throws IOException {
+        for (AlphaPalette palette : pendingPalettes) {
+            int id = paletteIds.get(palette);
+            ByteBuffer definition = allocate(RECORD_HEADER_BYTES + 10 + 3 * Double.BYTES + Float.BYTES);
+            definition.put(TAG_PALETTE).putInt(0);
+            putVarint(definition, id);
+            definition.putDouble(palette.getRed())
+                    .putDouble(palette.getGreen())
+                    .putDouble(palette.getBlue())
+                    .putFloat(palette.getFadeTtl());
+            putVarint(definition, palette.levels());
+            if (id == paletteOffsets.length) {
+                paletteOffsets = Arrays.copyOf(paletteOffsets, id * 2);
+            }
+            paletteOffsets[id] = writeRecord(definition);
+        }
+        pendingPalettes.clear();
+    }
+
+    private long writeRecord(ByteBuffer buffer) throws IOException {
+        int length = buffer.position();
+        buffer.putInt(1, length - RECORD_HEADER_BYTES).flip();
+        long chunkEnd = HEADER_BYTES + ((position - HEADER_BYTES) / chunkBytes + 1) * chunkBytes;
+        if (position + length > chunkEnd && (position - HEADER_BYTES) % chunkBytes != 0) {
+            position = chunkEnd;
+        }
+        long offset = position;
+        write(buffer, offset);
+        position += length;
+        return offset;
+    }
+
+    private void write(ByteBuffer buffer, long offset) throws IOException {
+        while (buffer.hasRemaining()) {
+            offset += channel.write(buffer, offset);
+        }
+    }
+
+    static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static void putVarint(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    static int getVarint(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    private static ByteBuffer ensure(ByteBuffer buffer, int bytes) {
+        if (buffer.remaining() >= bytes) {
+            return buffer;
+        }
+        ByteBuffer grown = allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+        buffer.flip();
+        return grown.put(buffer);
+    }
+
+    private static ByteBuffer allocate(int capacity) {
+        return ByteBuffer.allocate(capacity).order(ORDER);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,210 @@
+package engine.src;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class FrameReplay implements Closeable {
+    private final FileChannel channel;
+    private final long fileSize;
+    private final int chunkBytes;
+    private final double positionScale;
+    private final boolean indexed;
+    private long[] frameOffsets = new long[1024];
+    private long[] frameNanos = new long[1024];
+    private int frames;
+    private final List<AlphaPalette> palettes = new ArrayList<>();
+
+    private MappedByteBuffer window;
+    private long windowStart, windowEnd;
+    private int[] runLength = new int[16];
+    private AlphaPalette[] runPalette = new AlphaPalette[16];
+    private double[] runSize = new double[16];
+
+    public FrameReplay(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            this.fileSize = channel.size();
+            ByteBuffer header = read(0, FrameRecorder.HEADER_BYTES);
+            if (header.getInt() != FrameRecorder.MAGIC) {
+                throw new IOException("Not a particle capture: " + file);
+            }
+            int version = header.getInt();
+            if (version != FrameRecorder.VERSION) {
+                throw new IOException("Unsupported capture version " + version);
+            }
+            this.chunkBytes = header.getInt();
+            this.positionScale = 1.0 / header.getInt();
+            this.indexed = readIndex() || scan();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public int frames() {
+        return frames;
+    }
+
+    public long timestamp(int frame) {
+        return frameNanos[frame];
+    }
+
+    // False when the trailer was missing (the recording process died) and the index was rebuilt by scanning.
+    public boolean isIndexed() {
+        return indexed;
+    }
+
+    public int replay(int frame, ParticleSink sink) throws IOException {
+        ByteBuffer data = map(frameOffsets[frame]);
+        data.getLong();
+        int count = FrameRecorder.getVarint(data);
+        int runs = FrameRecorder.getVarint(data);
+        if (runs > runLength.length) {
+            runLength = new int[runs];
+            runPalette = new AlphaPalette[runs];
+            runSize = new double[runs];
+        }
+        for (int r = 0; r < runs; r++) {
+            runLength[r] = FrameRecorder.getVarint(data);
+            runPalette[r] = palettes.get(FrameRecorder.getVarint(data));
+            runSize[r] = (double) FrameRecorder.getVarint(data) / FrameRecorder.SIZE_QUANTUM;
+        }
+        int x = 0, y = 0;
+        for (int r = 0; r < runs; r++) {
+            AlphaPalette palette = runPalette[r];
+            double size = runSize[r];
+            for (int i = runLength[r]; i > 0; i--) {
+                x += FrameRecorder.unzigzag(FrameRecorder.getVarint(data));
+                y += FrameRecorder.unzigzag(FrameRecorder.getVarint(data));
+                sink.fill(x * positionScale, y * positionScale, size, palette, data.get() & 0xFF);
+            }
+        }
+        return count;
+    }
+
+    public int replay(int frame, FrameSnapshot snapshot) throws IOException {
+        snapshot.clear();
+        return replay(frame, (ParticleSink) snapshot);
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+
+    // Maps the fixed-size chunk holding the record at offset, reusing the current window when it already covers it.
+    private ByteBuffer map(long offset) throws IOException {
+        boolean covered = window != null && offset >= windowStart && offset + FrameRecorder.RECORD_HEADER_BYTES <= windowEnd;
+        int length = covered ? window.getInt((int) (offset - windowStart) + 1) : read(offset + 1, Integer.BYTES).getInt();
+        long end = offset + FrameRecorder.RECORD_HEADER_BYTES + length;
+        if (!covered || end > windowEnd) {
+            windowStart = chunkStart(offset);
+            windowEnd = Math.min(fileSize, Math.max(windowStart + chunkBytes, end));
+            window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowEnd - windowStart);
+            window.order(FrameRecorder.ORDER);
+        }
+        int at = (int) (offset - windowStart);
+        return window.duplicate().order(FrameRecorder.ORDER)
+                .limit(at + FrameRecorder.RECORD_HEADER_BYTES + length)
+                .position(at + FrameRecorder.RECORD_HEADER_BYTES);
+    }
+
+    private long chunkStart(long offset) {
+        return FrameRecorder.HEADER_BYTES + (offset - FrameRecorder.HEADER_BYTES) / chunkBytes * chunkBytes;
+    }
+
+    private boolean readIndex() throws IOException {
+        if (fileSize < FrameRecorder.HEADER_BYTES + FrameRecorder.TRAILER_BYTES) {
+            return false;
+        }
+        ByteBuffer trailer = read(fileSize - FrameRecorder.TRAILER_BYTES, FrameRecorder.TRAILER_BYTES);
+        long indexOffset = trailer.getLong();
+        int count = trailer.getInt();
+        if (trailer.getInt() != FrameRecorder.INDEX_MAGIC) {
+            return false;
+        }
+        ByteBuffer index = map(indexOffset);
+        frames = index.getInt();
+        if (frames != count) {
+            throw new IOException("Capture index is inconsistent: " + frames + " != " + count);
+        }
+        frameOffsets = new long[Math.max(1, frames)];
+        frameNanos = new long[Math.max(1, frames)];
+        for (int i = 0; i < frames; i++) {
+            frameOffsets[i] = index.getLong();
+            frameNanos[i] = index.getLong();
+        }
+        int paletteCount = index.getInt();
+        for (int i = 0; i < paletteCount; i++) {
+            definePalette(map(index.getLong()));
+        }
+        return true;
+    }
+
+    private boolean scan() throws IOException {
+        long offset = FrameRecorder.HEADER_BYTES;
+        while (offset + FrameRecorder.RECORD_HEADER_BYTES <= fileSize) {
+            ByteBuffer header = read(offset, FrameRecorder.RECORD_HEADER_BYTES);
+            byte tag = header.get();
+            if (tag == 0) {
+                long next = chunkStart(offset) + chunkBytes;
+                if (next <= offset) {
+                    break;
+                }
+                offset = next;
+                continue;
+            }
+            int length = header.getInt();
+            long end = offset + FrameRecorder.RECORD_HEADER_BYTES + length;
+            if (length < 0 || end > fileSize) {
+                break;
+            }
+            if (tag == FrameRecorder.TAG_PALETTE) {
+                definePalette(map(offset));
+            } else if (tag == FrameRecorder.TAG_FRAME) {
+                if (frames == frameOffsets.length) {
+                    frameOffsets = Arrays.copyOf(frameOffsets, frames * 2);
+                    frameNanos = Arrays.copyOf(frameNanos, frames * 2);
+                }
+                frameOffsets[frames] = offset;
+                frameNanos[frames] = read(offset + FrameRecorder.RECORD_HEADER_BYTES, Long.BYTES).getLong();
+                frames++;
+            } else {
+                break;
+            }
+            offset = end;
+        }
+        return false;
+    }
+
+    private void definePalette(ByteBuffer data) {
+        int id = FrameRecorder.getVarint(data);
+        double red = data.getDouble(), green = data.getDouble(), blue = data.getDouble();
+        float fadeTtl = data.getFloat();
+        AlphaPalette palette = new AlphaPalette(red, green, blue, fadeTtl, FrameRecorder.getVarint(data));
+        while (palettes.size() <= id) {
+            palettes.add(null);
+        }
+        palettes.set(id, palette);
+    }
+
+    private ByteBuffer read(long offset, int bytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(bytes).order(FrameRecorder.ORDER);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new EOFException("Capture truncated at " + (offset + buffer.position()));
+            }
+        }
+        return buffer.flip();
+    }
+}
\ No newline at end of file
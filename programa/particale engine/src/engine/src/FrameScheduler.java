@@ -0,0 +1,114 @@
+package engine.src;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class FrameScheduler {
+    private static final int MIN_CHUNK = 2048;
+    private static final int MAX_SURPLUS_TASKS = 3;
+    private static FrameScheduler shared;
+
+    private final ForkJoinPool pool;
+    private final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+
+    public interface RangeTask {
+        void run(int start, int end);
+    }
+
+    public FrameScheduler(int parallelism) {
+        this.pool = new ForkJoinPool(Math.max(1, parallelism), pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("frame-worker-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            threads.add(thread);
+            return thread;
+        }, null, false);
+    }
+
+    public static synchronized FrameScheduler shared() {
+        if (shared == null) {
+            shared = new FrameScheduler(Runtime.getRuntime().availableProcessors());
+        }
+        return shared;
+    }
+
+    public long[] threadIds() {
+        threads.removeIf(thread -> thread.getState() == Thread.State.TERMINATED);
+        return threads.stream().mapToLong(Thread::getId).toArray();
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    public boolean forEach(int size, RangeTask task, long timeout, TimeUnit unit) {
+        return forEach(size, Math.max(MIN_CHUNK, size / (pool.getParallelism() * 4)), task, timeout, unit);
+    }
+
+    public boolean forEach(int size, int threshold, RangeTask task, long timeout, TimeUnit unit) {
+        if (size <= 0) {
+            return true;
+        }
+        threshold = Math.max(1, threshold);
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        AtomicBoolean expired = new AtomicBoolean();
+        pool.invoke(new RangeAction(task, 0, size, threshold, deadline, expired));
+        return !expired.get();
+    }
+
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    private static class RangeAction extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final RangeTask task;
+        private final int start, end, threshold;
+        private final long deadline;
+        private final AtomicBoolean expired;
+        private RangeAction nextForked;
+
+        RangeAction(RangeTask task, int start, int end, int threshold, long deadline, AtomicBoolean expired) {
+            this.task = task;
+            this.start = start;
+            this.end = end;
+            this.threshold = threshold;
+            this.deadline = deadline;
+            this.expired = expired;
+        }
+
+        @Override
+        protected void compute() {
+            int lo = start;
+            int hi = end;
+            RangeAction forked = null;
+            while (hi - lo > threshold && getSurplusQueuedTaskCount() <= MAX_SURPLUS_TASKS) {
+                int mid = (lo + hi) >>> 1;
+                RangeAction right = new RangeAction(task, mid, hi, threshold, deadline, expired);
+                right.nextForked = forked;
+                forked = right;
+                right.fork();
+                hi = mid;
+            }
+            if (expired.get() || System.nanoTime() - deadline > 0) {
+                expired.set(true);
+            } else {
+                task.run(lo, hi);
+            }
+            while (forked != null) {
+                if (forked.tryUnfork()) {
+                    forked.compute();
+                } else {
+                    forked.join();
+                }
+                forked = forked.nextForked;
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,49 @@
+package engine.src;
+
+import java.util.Arrays;
+
+public class FrameSnapshot implements ParticleSink {
+    private float[] x = new float[1024];
+    private float[] y = new float[1024];
+    private float[] size = new float[1024];
+    private byte[] shade = new byte[1024];
+    private AlphaPalette[] palette = new AlphaPalette[1024];
+    private int count;
+    long sequence;
+
+    public void clear() {
+        count = 0;
+    }
+
+    @Override
+    public void fill(double x, double y, double size, AlphaPalette palette, int shade) {
+        if (count == this.x.length) {
+            int capacity = count * 2;
+            this.x = Arrays.copyOf(this.x, capacity);
+            this.y = Arrays.copyOf(this.y, capacity);
+            this.size = Arrays.copyOf(this.size, capacity);
+            this.shade = Arrays.copyOf(this.shade, capacity);
+            this.palette = Arrays.copyOf(this.palette, capacity);
+        }
+        this.x[count] = (float) x;
+        this.y[count] = (float) y;
+        this.size[count] = (float) size;
+        this.shade[count] = (byte) shade;
+        this.palette[count] = palette;
+        count++;
+    }
+
+    public void replay(ParticleSink sink) {
+        for (int i = 0; i < count; i++) {
+            sink.fill(x[i], y[i], size[i], palette[i], shade[i] & 0xFF);
+        }
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+}
\ No newline at end of file
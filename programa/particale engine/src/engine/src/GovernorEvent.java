@@ -0,0 +1,38 @@
+package engine.src;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name("particles.Governor")
+@Label("Frame Governor Decision")
+@Category({"Particle Engine", "Frame"})
+@Description("Quality change made by the frame-budget governor")
+@StackTrace(false)
+class GovernorEvent extends jdk.jfr.Event {
+    @Label("Action")
+    String action;
+
+    @Label("Cost")
+    String cost;
+
+    @Label("Average Frame Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long frameNanos;
+
+    @Label("Budget")
+    @Timespan(Timespan.NANOSECONDS)
+    long budgetNanos;
+
+    @Label("Emit Scale")
+    double emitScale;
+
+    @Label("Draw Stride")
+    int drawStride;
+
+    @Label("Dot Scale")
+    double dotScale;
+}
\ No newline at end of file
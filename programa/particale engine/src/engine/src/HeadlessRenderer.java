@@ -0,0 +1,165 @@
+package engine.src;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+// Runs simulate/draw on the calling thread, rasterizes on one thread and encodes on a pool, so the three
+// stages overlap; bounded snapshot and pixel-buffer pools keep a slow stage from running the others out of memory.
+public class HeadlessRenderer {
+    private static final FrameSnapshot END = new FrameSnapshot();
+
+    private final int width, height;
+    private final Runnable simulate;
+    private final Consumer<ParticleSink> draw;
+    private final PixelRasterizer rasterizer;
+    private final LatencyHistogram simulation = new LatencyHistogram();
+    private final LatencyHistogram rasterization = new LatencyHistogram();
+    private final LatencyHistogram encoding = new LatencyHistogram();
+    private int encoders = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+    private int depth = 4;
+
+    public HeadlessRenderer(int width, int height, Runnable simulate, Consumer<ParticleSink> draw) {
+        this.width = width;
+        this.height = height;
+        this.simulate = simulate;
+        this.draw = draw;
+        this.rasterizer = new PixelRasterizer(width, height);
+    }
+
+    public void setEncoders(int encoders) {
+        this.encoders = Math.max(1, encoders);
+    }
+
+    public void setDepth(int depth) {
+        this.depth = Math.max(1, depth);
+    }
+
+    public LatencyHistogram getSimulation() {
+        return simulation;
+    }
+
+    public LatencyHistogram getRasterization() {
+        return rasterization;
+    }
+
+    public LatencyHistogram getEncoding() {
+        return encoding;
+    }
+
+    public int render(int frames, Path directory, FrameEncoder.Format format) throws IOException, InterruptedException {
+        Files.createDirectories(directory);
+        BlockingQueue<FrameSnapshot> free = new ArrayBlockingQueue<>(depth);
+        BlockingQueue<FrameSnapshot> drawn = new ArrayBlockingQueue<>(depth + 1);
+        BlockingQueue<int[]> buffers = new ArrayBlockingQueue<>(depth + encoders);
+        for (int i = 0; i < depth; i++) {
+            free.add(new FrameSnapshot());
+        }
+        for (int i = 0; i < depth + encoders; i++) {
+            buffers.add(new int[width * height]);
+        }
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        AtomicInteger written = new AtomicInteger();
+        AtomicInteger encoderIds = new AtomicInteger();
+        Queue<FrameEncoder> opened = new ConcurrentLinkedQueue<>();
+        ThreadLocal<FrameEncoder> encoder = ThreadLocal.withInitial(() -> {
+            FrameEncoder frameEncoder = new FrameEncoder(width, height);
+            opened.add(frameEncoder);
+            return frameEncoder;
+        });
+        ExecutorService pool = Executors.newFixedThreadPool(encoders, task -> {
+            Thread thread = new Thread(task, "frame-encoder-" + encoderIds.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Thread raster = new Thread(() -> {
+            try {
+                for (int frame = 0; ; frame++) {
+                    FrameSnapshot snapshot = drawn.take();
+                    if (snapshot == END) {
+                        return;
+                    }
+                    if (failure.get() != null) {
+                        free.put(snapshot);
+                        continue;
+                    }
+                    long started = System.nanoTime();
+                    rasterizer.clear();
+                    snapshot.replay(rasterizer);
+                    free.put(snapshot);
+                    int[] pixels = buffers.take();
+                    System.arraycopy(rasterizer.render(), 0, pixels, 0, pixels.length);
+                    rasterization.record(System.nanoTime() - started);
+
+                    Path file = directory.resolve(String.format("frame-%05d.%s", frame, format.extension()));
+                    pool.execute(() -> {
+                        long begin = System.nanoTime();
+                        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), 1 << 16)) {
+                            encoder.get().write(format, pixels, out);
+                            written.incrementAndGet();
+                        } catch (IOException | RuntimeException e) {
+                            failure.compareAndSet(null, e);
+                        } finally {
+                            buffers.add(pixels);
+                            encoding.record(System.nanoTime() - begin);
+                        }
+                    });
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                failure.compareAndSet(null, e);
+                drawn.clear();
+            }
+        }, "frame-rasterizer");
+        raster.setDaemon(true);
+        raster.start();
+
+        try {
+            for (int frame = 0; frame < frames && failure.get() == null && raster.isAlive(); frame++) {
+                long started = System.nanoTime();
+                simulate.run();
+                FrameSnapshot snapshot = null;
+                while (snapshot == null && raster.isAlive()) {
+                    snapshot = free.poll(100, TimeUnit.MILLISECONDS);
+                }
+                if (snapshot == null) {
+                    break;
+                }
+                snapshot.clear();
+                draw.accept(snapshot);
+                drawn.put(snapshot);
+                simulation.record(System.nanoTime() - started);
+            }
+            drawn.put(END);
+            raster.join();
+        } finally {
+            raster.interrupt();
+            pool.shutdown();
+            pool.awaitTermination(1, TimeUnit.MINUTES);
+            opened.forEach(FrameEncoder::close);
+        }
+
+        Exception error = failure.get();
+        if (error instanceof IOException) {
+            throw (IOException) error;
+        }
+        if (error != null) {
+            throw new IOException("Frame rendering failed: " + error.getMessage(), error);
+        }
+        return written.get();
+    }
+}
\ No newline at end of file
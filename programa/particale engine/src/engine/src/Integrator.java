@@ -0,0 +1,23 @@
+package engine.src;
+
+public interface Integrator {
+    String VECTOR_INTEGRATOR = "vector.src.VectorIntegrator";
+
+    int integrate(double[] x, double[] y, double[] dx, double[] dy, float[] ttl, int start, int end);
+
+    static Integrator scalar() {
+        return ScalarIntegrator.INSTANCE;
+    }
+
+    static Integrator preferred() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return scalar();
+        }
+        try {
+            return (Integrator) Class.forName(VECTOR_INTEGRATOR).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            System.err.println("Vector integrator unavailable: " + e.getMessage());
+            return scalar();
+        }
+    }
+}
\ No newline at end of file
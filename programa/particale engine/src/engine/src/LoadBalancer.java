@@ -0,0 +1,158 @@
+package engine.src;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+public class LoadBalancer {
+    private static final double SMOOTHING = 0.2;
+    private static final double HYSTERESIS = 0.05;
+    private static final double MAX_SHIFT = 0.1;
+    private static final double MIN_SHARE = 0.02;
+
+    private final Map<Integer, Worker> workers = new HashMap<>();
+    private boolean enabled = true;
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void record(int id, int particles, long roundTripNanos) {
+        Worker worker = worker(id);
+        worker.samples++;
+        if (worker.samples == 1) {
+            worker.particles = particles;
+            worker.roundTrip = roundTripNanos;
+        } else {
+            worker.particles += SMOOTHING * (particles - worker.particles);
+            worker.roundTrip += SMOOTHING * (roundTripNanos - worker.roundTrip);
+        }
+    }
+
+    public void forget(int id) {
+        workers.remove(id);
+    }
+
+    public double getThroughput(int id) {
+        Worker worker = workers.get(id);
+        return worker == null || worker.roundTrip <= 0 ? 0 : worker.particles * 1e9 / worker.roundTrip;
+    }
+
+    public double getShare(int id) {
+        Worker worker = workers.get(id);
+        return worker == null ? 0 : worker.share;
+    }
+
+    public double[] shares(int[] ids) {
+        double[] shares = new double[ids.length];
+        if (ids.length == 0) {
+            return shares;
+        }
+        if (!enabled) {
+            Arrays.fill(shares, 1.0 / ids.length);
+            return shares;
+        }
+
+        double known = 0;
+        int measured = 0;
+        double[] target = new double[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            target[i] = getThroughput(ids[i]);
+            if (target[i] > 0) {
+                known += target[i];
+                measured++;
+            }
+        }
+        double fallback = measured == 0 ? 1 : known / measured;
+        double total = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (target[i] <= 0) {
+                target[i] = fallback;
+            }
+            total += target[i];
+        }
+
+        double floor = MIN_SHARE / ids.length;
+        double current = 0;
+        boolean moved = false;
+        for (int i = 0; i < ids.length; i++) {
+            target[i] = Math.max(floor, target[i] / total);
+            Worker worker = worker(ids[i]);
+            if (worker.share <= 0) {
+                worker.share = 1.0 / ids.length;
+            }
+            moved |= Math.abs(target[i] - worker.share) > HYSTERESIS;
+            current += worker.share;
+        }
+        double gain = 0;
+        double loss = 0;
+        double[] shift = new double[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            shares[i] = workers.get(ids[i]).share / current;
+            if (moved) {
+                shift[i] = Math.max(-MAX_SHIFT, Math.min(MAX_SHIFT, target[i] - shares[i]));
+                gain += Math.max(0, shift[i]);
+                loss += Math.max(0, -shift[i]);
+            }
+        }
+        // gains and losses must cancel, otherwise renormalising would push a share past MAX_SHIFT
+        double sum = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (shift[i] > 0 && gain > loss) {
+                shift[i] *= loss / gain;
+            } else if (shift[i] < 0 && loss > gain) {
+                shift[i] *= gain / loss;
+            }
+            shares[i] += shift[i];
+            sum += shares[i];
+        }
+        for (int i = 0; i < ids.length; i++) {
+            shares[i] /= sum;
+            workers.get(ids[i]).share = shares[i];
+        }
+        return shares;
+    }
+
+    public int[] split(int total, int[] ids) {
+        return apportion(total, shares(ids));
+    }
+
+    public static int[] apportion(int total, double[] shares) {
+        int[] counts = new int[shares.length];
+        double[] remainders = new double[shares.length];
+        int assigned = 0;
+        for (int i = 0; i < shares.length; i++) {
+            double exact = total * shares[i];
+            counts[i] = (int) exact;
+            remainders[i] = exact - counts[i];
+            assigned += counts[i];
+        }
+        while (assigned < total && shares.length > 0) {
+            int best = 0;
+            for (int i = 1; i < shares.length; i++) {
+                if (remainders[i] > remainders[best]) {
+                    best = i;
+                }
+            }
+            counts[best]++;
+            remainders[best] = -1;
+            assigned++;
+        }
+        return counts;
+    }
+
+    private Worker worker(int id) {
+        return workers.computeIfAbsent(id, key -> new Worker());
+    }
+
+    private static class Worker {
+        int samples;
+        double particles;
+        double roundTrip;
+        double share;
+    }
+}
\ No newline at end of file
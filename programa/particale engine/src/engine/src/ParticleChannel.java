@@ -0,0 +1,323 @@
+package engine.src;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.ProtocolException;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.List;
+
+public class ParticleChannel implements Closeable {
+    private static final int INITIAL_BUFFER = 64 * 1024;
+    private static final int MAX_FRAME = 1 << 30;
+
+    private final SocketChannel channel;
+    private ByteBuffer out = allocate(INITIAL_BUFFER);
+    private ByteBuffer in = allocate(INITIAL_BUFFER);
+    private byte frameType;
+    private int pendingLength = -1;
+    private boolean readingLength;
+    private boolean draining;
+    private SharedParticleRegion shared;
+    private boolean sharedPending;
+    private boolean sharedPosted;
+    private boolean sharedFrame;
+
+    public ParticleChannel(SocketChannel channel) throws IOException {
+        this.channel = channel;
+        channel.configureBlocking(true);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+    }
+
+    public SocketChannel getChannel() {
+        return channel;
+    }
+
+    public void sendHello() throws IOException {
+        ensureOut(ParticleCodec.HEADER_BYTES);
+        ParticleCodec.endFrame(out, ParticleCodec.beginFrame(out, ParticleCodec.TYPE_HELLO));
+        flush();
+    }
+
+    public void attach(SharedParticleRegion shared) {
+        this.shared = shared;
+    }
+
+    public SharedParticleRegion getShared() {
+        return shared;
+    }
+
+    public boolean isShared() {
+        return shared != null;
+    }
+
+    public void sendAttach(String path) throws IOException {
+        ensureOut(ParticleCodec.attachFrameBytes(path));
+        ParticleCodec.encodeAttach(out, path);
+        flush();
+    }
+
+    public boolean isAwaitingShared() {
+        return sharedPosted;
+    }
+
+    public void checkOpen() throws IOException {
+        ByteBuffer probe = ByteBuffer.allocate(1);
+        int read = channel.read(probe);
+        if (read < 0) {
+            throw new EOFException("Connection closed by peer");
+        }
+        if (read > 0) {
+            throw new ProtocolException("Unexpected data while a shared-memory request is pending");
+        }
+    }
+
+    public String decodeAttach() throws ProtocolException {
+        expectType(ParticleCodec.TYPE_ATTACH);
+        return ParticleCodec.decodeAttach(in);
+    }
+
+    public void setBlocking(boolean blocking) throws IOException {
+        channel.configureBlocking(blocking);
+    }
+
+    public void expectHello() throws IOException {
+        in.clear().limit(2);
+        fill(in);
+        rejectSerialization();
+        if (readFrame(2) != ParticleCodec.TYPE_HELLO) {
+            throw new ProtocolException("Expected hello frame, got type " + frameType);
+        }
+    }
+
+    public void encodeParticles(ParticleStore store, int start, int end) throws IOException {
+        if (shared != null) {
+            shared.write(store, start, end);
+            sharedPending = true;
+            return;
+        }
+        ensureOut(ParticleCodec.particleFrameBytes(end - start));
+        ParticleCodec.encodeParticles(out, store, start, end);
+    }
+
+    public void sendParticles(ParticleStore store, int start, int end) throws IOException {
+        encodeParticles(store, start, end);
+        flush();
+    }
+
+    public void encodeStep(List<EmitCommand> emits) {
+        encodeStep(0, emits);
+    }
+
+    public void encodeStep(int release, List<EmitCommand> emits) {
+        ensureOut(ParticleCodec.stepFrameBytes(emits.size()));
+        ParticleCodec.encodeStep(out, release, emits);
+    }
+
+    public void sendStep(List<EmitCommand> emits) throws IOException {
+        encodeStep(emits);
+        flush();
+    }
+
+    public void sendSnapshot(ParticleStore store, int start, int end) throws IOException {
+        ensureOut(ParticleCodec.snapshotFrameBytes(end - start));
+        ParticleCodec.encodeSnapshot(out, store, start, end);
+        flush();
+    }
+
+    public void flush() throws IOException {
+        postShared();
+        out.flip();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+        out.clear();
+    }
+
+    public boolean flushAvailable() throws IOException {
+        postShared();
+        if (!draining) {
+            out.flip();
+            draining = true;
+        }
+        channel.write(out);
+        if (out.hasRemaining()) {
+            return false;
+        }
+        out.clear();
+        draining = false;
+        return true;
+    }
+
+    public boolean helloAvailable() throws IOException {
+        if (!readAvailable(true)) {
+            return false;
+        }
+        if (frameType != ParticleCodec.TYPE_HELLO) {
+            throw new ProtocolException("Expected hello frame, got type " + frameType);
+        }
+        return true;
+    }
+
+    public boolean readAvailable() throws IOException {
+        return readAvailable(false);
+    }
+
+    // A serialization peer's 0xACED magic reads as a ~84 MB length, so the hello check runs before the buffer grows.
+    private boolean readAvailable(boolean hello) throws IOException {
+        if (sharedPosted) {
+            if (!shared.isDone()) {
+                return false;
+            }
+            sharedPosted = false;
+            sharedFrame = true;
+            frameType = ParticleCodec.TYPE_PARTICLES;
+            return true;
+        }
+        sharedFrame = false;
+        if (pendingLength < 0) {
+            if (!readingLength) {
+                in.clear().limit(ParticleCodec.LENGTH_BYTES);
+                readingLength = true;
+            }
+            int read = readSome(in);
+            if (hello && read >= 2) {
+                rejectSerialization();
+            }
+            if (read < ParticleCodec.LENGTH_BYTES) {
+                return false;
+            }
+            readingLength = false;
+            pendingLength = in.getInt(0);
+            if (pendingLength < 2 || pendingLength > MAX_FRAME) {
+                throw new ProtocolException("Bad frame length " + pendingLength);
+            }
+            if (in.capacity() < ParticleCodec.LENGTH_BYTES + pendingLength) {
+                ByteBuffer grown = allocate(ParticleCodec.LENGTH_BYTES + pendingLength);
+                grown.putInt(pendingLength);
+                in = grown;
+            }
+            in.limit(ParticleCodec.LENGTH_BYTES + pendingLength).position(ParticleCodec.LENGTH_BYTES);
+        }
+        if (readSome(in) < in.limit()) {
+            return false;
+        }
+        pendingLength = -1;
+        in.position(ParticleCodec.LENGTH_BYTES);
+        frameType = ParticleCodec.checkHeader(in);
+        return true;
+    }
+
+    public byte getFrameType() {
+        return frameType;
+    }
+
+    public byte readFrame() throws IOException {
+        sharedFrame = false;
+        in.clear().limit(0);
+        return readFrame(0);
+    }
+
+    public int decodeParticles(ParticleStore store, int start) throws ProtocolException {
+        expectType(ParticleCodec.TYPE_PARTICLES);
+        if (sharedFrame) {
+            return shared.read(store, start);
+        }
+        return ParticleCodec.decodeParticles(in, store, start);
+    }
+
+    public int decodeStep(List<EmitCommand> emits) throws ProtocolException {
+        expectType(ParticleCodec.TYPE_STEP);
+        return ParticleCodec.decodeStep(in, emits);
+    }
+
+    public int decodeSnapshot(ParticleStore store) throws ProtocolException {
+        expectType(ParticleCodec.TYPE_SNAPSHOT);
+        return ParticleCodec.decodeSnapshot(in, store);
+    }
+
+    public int receiveParticles(ParticleStore store, int start) throws IOException {
+        readFrame();
+        return decodeParticles(store, start);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            channel.close();
+        } finally {
+            if (shared != null) {
+                shared.close();
+            }
+        }
+    }
+
+    private void postShared() {
+        if (sharedPending) {
+            sharedPending = false;
+            sharedPosted = true;
+            shared.post();
+        }
+    }
+
+    private byte readFrame(int buffered) throws IOException {
+        in.limit(ParticleCodec.LENGTH_BYTES).position(buffered);
+        fill(in);
+        int length = in.getInt(0);
+        if (length < 2 || length > MAX_FRAME) {
+            throw new ProtocolException("Bad frame length " + length);
+        }
+        if (in.capacity() < ParticleCodec.LENGTH_BYTES + length) {
+            ByteBuffer grown = allocate(ParticleCodec.LENGTH_BYTES + length);
+            grown.putInt(length);
+            in = grown;
+        }
+        in.limit(ParticleCodec.LENGTH_BYTES + length).position(ParticleCodec.LENGTH_BYTES);
+        fill(in);
+        in.position(ParticleCodec.LENGTH_BYTES);
+        frameType = ParticleCodec.checkHeader(in);
+        return frameType;
+    }
+
+    private void expectType(byte type) throws ProtocolException {
+        if (frameType != type) {
+            throw new ProtocolException("Expected frame type " + type + ", got type " + frameType);
+        }
+    }
+
+    private void rejectSerialization() throws ProtocolException {
+        if (in.get(0) == (byte) 0xAC && in.get(1) == (byte) 0xED) {
+            throw new ProtocolException("Peer speaks Java serialization, not particle protocol v" + ParticleCodec.VERSION);
+        }
+    }
+
+    private int readSome(ByteBuffer buf) throws IOException {
+        if (buf.hasRemaining() && channel.read(buf) < 0) {
+            throw new EOFException("Connection closed by peer");
+        }
+        return buf.position();
+    }
+
+    private void fill(ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining()) {
+            if (channel.read(buf) < 0) {
+                throw new EOFException("Connection closed by peer");
+            }
+        }
+    }
+
+    private void ensureOut(int bytes) {
+        if (out.remaining() < bytes) {
+            ByteBuffer grown = allocate(Math.max(out.capacity() * 2, out.position() + bytes));
+            out.flip();
+            grown.put(out);
+            out = grown;
+        }
+    }
+
+    private static ByteBuffer allocate(int capacity) {
+        return ByteBuffer.allocateDirect(capacity).order(ParticleCodec.ORDER);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,167 @@
+package engine.src;
+
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+public final class ParticleCodec {
+    public static final byte VERSION = 3;
+    public static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    public static final byte TYPE_HELLO = 1;
+    public static final byte TYPE_PARTICLES = 2;
+    public static final byte TYPE_STEP = 3;
+    public static final byte TYPE_SNAPSHOT = 4;
+    public static final byte TYPE_ATTACH = 5;
+
+    public static final int LENGTH_BYTES = Integer.BYTES;
+    public static final int HEADER_BYTES = LENGTH_BYTES + 2;
+    public static final int RECORD_BYTES = 4 * Double.BYTES + Float.BYTES;
+    public static final int SNAPSHOT_RECORD_BYTES = 2 * Float.BYTES + 1;
+
+    private ParticleCodec() {
+    }
+
+    public static int particleFrameBytes(int count) {
+        return Math.toIntExact(HEADER_BYTES + Integer.BYTES + (long) count * RECORD_BYTES);
+    }
+
+    public static int stepFrameBytes(int emits) {
+        return Math.toIntExact(HEADER_BYTES + 2 * Integer.BYTES + (long) emits * EmitCommand.BYTES);
+    }
+
+    public static int snapshotFrameBytes(int count) {
+        return Math.toIntExact(HEADER_BYTES + Integer.BYTES + (long) count * SNAPSHOT_RECORD_BYTES);
+    }
+
+    public static int attachFrameBytes(String path) {
+        return HEADER_BYTES + Integer.BYTES + path.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    public static int beginFrame(ByteBuffer buf, byte type) {
+        int start = buf.position();
+        buf.putInt(0);
+        buf.put(VERSION);
+        buf.put(type);
+        return start;
+    }
+
+    public static void endFrame(ByteBuffer buf, int start) {
+        buf.putInt(start, buf.position() - start - LENGTH_BYTES);
+    }
+
+    public static void encodeParticles(ByteBuffer buf, ParticleStore store, int start, int end) {
+        int frame = beginFrame(buf, TYPE_PARTICLES);
+        buf.putInt(end - start);
+        for (int i = start; i < end; i++) {
+            buf.putDouble(store.x(i));
+            buf.putDouble(store.y(i));
+            buf.putDouble(store.dx(i));
+            buf.putDouble(store.dy(i));
+            buf.putFloat(store.ttl(i));
+        }
+        endFrame(buf, frame);
+    }
+
+    public static int decodeParticles(ByteBuffer buf, ParticleStore store, int start) throws ProtocolException {
+        int count = buf.getInt();
+        if (count < 0 || count > buf.remaining() / RECORD_BYTES) {
+            throw new ProtocolException("Truncated particle frame: " + count + " records, " + buf.remaining() + " bytes");
+        }
+        store.ensureCapacity(start + count);
+        for (int j = 0; j < count; j++) {
+            double x = buf.getDouble();
+            double y = buf.getDouble();
+            double dx = buf.getDouble();
+            double dy = buf.getDouble();
+            float ttl = buf.getFloat();
+            int i = start + j;
+            if (i < store.size()) {
+                store.set(i, x, y, dx, dy, ttl);
+            } else {
+                store.add(x, y, dx, dy, ttl);
+            }
+        }
+        return count;
+    }
+
+    public static void encodeStep(ByteBuffer buf, int release, List<EmitCommand> emits) {
+        int frame = beginFrame(buf, TYPE_STEP);
+        buf.putInt(release);
+        buf.putInt(emits.size());
+        for (EmitCommand emit : emits) {
+            buf.putDouble(emit.getX());
+            buf.putDouble(emit.getY());
+            buf.putInt(emit.getCount());
+            buf.putLong(emit.getSeed());
+            buf.putFloat(emit.getTtl());
+            buf.putInt(emit.getAge());
+        }
+        endFrame(buf, frame);
+    }
+
+    public static int decodeStep(ByteBuffer buf, List<EmitCommand> emits) throws ProtocolException {
+        int release = buf.getInt();
+        int count = buf.getInt();
+        if (count < 0 || count > buf.remaining() / EmitCommand.BYTES) {
+            throw new ProtocolException("Truncated step frame: " + count + " emits, " + buf.remaining() + " bytes");
+        }
+        for (int i = 0; i < count; i++) {
+            emits.add(new EmitCommand(buf.getDouble(), buf.getDouble(), buf.getInt(), buf.getLong(), buf.getFloat(), buf.getInt()));
+        }
+        return release;
+    }
+
+    public static void encodeSnapshot(ByteBuffer buf, ParticleStore store, int start, int end) {
+        int frame = beginFrame(buf, TYPE_SNAPSHOT);
+        buf.putInt(end - start);
+        for (int i = start; i < end; i++) {
+            buf.putFloat((float) store.x(i));
+            buf.putFloat((float) store.y(i));
+            buf.put((byte) Math.min(255, Math.max(0, (int) Math.ceil(store.ttl(i)))));
+        }
+        endFrame(buf, frame);
+    }
+
+    public static int decodeSnapshot(ByteBuffer buf, ParticleStore store) throws ProtocolException {
+        int count = buf.getInt();
+        if (count < 0 || count > buf.remaining() / SNAPSHOT_RECORD_BYTES) {
+            throw new ProtocolException("Truncated snapshot frame: " + count + " records, " + buf.remaining() + " bytes");
+        }
+        store.ensureCapacity(store.size() + count);
+        for (int j = 0; j < count; j++) {
+            float x = buf.getFloat();
+            float y = buf.getFloat();
+            store.add(x, y, 0, 0, buf.get() & 0xFF);
+        }
+        return count;
+    }
+
+    public static void encodeAttach(ByteBuffer buf, String path) {
+        int frame = beginFrame(buf, TYPE_ATTACH);
+        byte[] bytes = path.getBytes(StandardCharsets.UTF_8);
+        buf.putInt(bytes.length);
+        buf.put(bytes);
+        endFrame(buf, frame);
+    }
+
+    public static String decodeAttach(ByteBuffer buf) throws ProtocolException {
+        int length = buf.getInt();
+        if (length < 0 || buf.remaining() < length) {
+            throw new ProtocolException("Truncated attach frame: " + length + " bytes, " + buf.remaining() + " remaining");
+        }
+        byte[] bytes = new byte[length];
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public static byte checkHeader(ByteBuffer buf) throws ProtocolException {
+        byte version = buf.get();
+        if (version != VERSION) {
+            throw new ProtocolException("Unsupported protocol version " + version + ", expected " + VERSION);
+        }
+        return buf.get();
+    }
+}
\ No newline at end of file
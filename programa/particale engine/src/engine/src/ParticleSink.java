@@ -0,0 +1,5 @@
+package engine.src;
+
+public interface ParticleSink {
+    void fill(double x, double y, double size, AlphaPalette palette, int shade);
+}
\ No newline at end of file
@@ -0,0 +1,61 @@
+package engine.src;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+public class ParticleSpawner {
+    private static final int CHUNK = 16 * 1024;
+    private static final int PARALLEL_THRESHOLD = 100_000;
+    private static final double SPREAD = 7;
+
+    private final FrameScheduler scheduler;
+    private SplittableRandom random = new SplittableRandom();
+
+    public ParticleSpawner() {
+        this(null);
+    }
+
+    public ParticleSpawner(FrameScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    public void setSeed(long seed) {
+        random = new SplittableRandom(seed);
+    }
+
+    public long nextSeed() {
+        return random.nextLong();
+    }
+
+    public void spawn(ParticleStore store, double x, double y, int count, float ttl) {
+        spawn(store, x, y, count, ttl, random, scheduler);
+    }
+
+    // Each CHUNK draws from its own seeded stream, so the result depends on the seed only, not on how many threads ran.
+    public static void spawn(ParticleStore store, double x, double y, int count, float ttl, SplittableRandom random, FrameScheduler scheduler) {
+        if (count <= 0) {
+            return;
+        }
+        int chunks = (count + CHUNK - 1) / CHUNK;
+        long[] seeds = new long[chunks];
+        for (int c = 0; c < chunks; c++) {
+            seeds[c] = random.nextLong();
+        }
+        int first = store.append(count, ttl);
+        FrameScheduler.RangeTask fill = (start, end) -> {
+            for (int c = start; c < end; c++) {
+                SplittableRandom stream = new SplittableRandom(seeds[c]);
+                int from = first + c * CHUNK;
+                int to = first + Math.min(count, (c + 1) * CHUNK);
+                for (int i = from; i < to; i++) {
+                    double dx = (stream.nextDouble() - 0.5) * SPREAD;
+                    double dy = (stream.nextDouble() - 0.5) * SPREAD;
+                    store.set(i, x, y, dx, dy, ttl);
+                }
+            }
+        };
+        if (scheduler == null || count < PARALLEL_THRESHOLD || !scheduler.forEach(chunks, 1, fill, 1, TimeUnit.SECONDS)) {
+            fill.run(0, chunks);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,313 @@
+package engine.src;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ParticleStore {
+    private static final int DEFAULT_CAPACITY = 1024;
+    private static final Integrator DEFAULT_INTEGRATOR = Integrator.preferred();
+    private static final double RETIRED_COMPACT_RATIO = 1.0 / 64;
+    private static final float RETIRED_TTL = Float.NEGATIVE_INFINITY;
+
+    private double[] x;
+    private double[] y;
+    private double[] dx;
+    private double[] dy;
+    private float[] ttl;
+    private byte[] shade;
+    private AlphaPalette palette;
+    private Integrator integrator = DEFAULT_INTEGRATOR;
+    private int head;
+    private int mask;
+    private int size;
+    private boolean lifetimeOrdered = true;
+    private final AtomicInteger retired = new AtomicInteger();
+    private final AtomicInteger firstRetired = new AtomicInteger(Integer.MAX_VALUE);
+
+    public ParticleStore() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ParticleStore(int capacity) {
+        allocate(powerOfTwo(capacity));
+    }
+
+    public ParticleStore(AlphaPalette palette) {
+        this(DEFAULT_CAPACITY);
+        this.palette = palette;
+    }
+
+    public int add(double x, double y, double dx, double dy, float ttl) {
+        ensureCapacity(size + 1);
+        if (size > 0 && ttl < this.ttl[physical(size - 1)]) {
+            lifetimeOrdered = false;
+        }
+        int i = size++;
+        set(i, x, y, dx, dy, ttl);
+        return i;
+    }
+
+    // Reserves count slots for the caller to set(); every slot in the range must be written before the next read.
+    public int append(int count, float ttl) {
+        ensureCapacity(size + count);
+        if (size > 0 && ttl < this.ttl[physical(size - 1)]) {
+            lifetimeOrdered = false;
+        }
+        int first = size;
+        size += count;
+        return first;
+    }
+
+    // Callers must keep ttl non-decreasing from oldest to newest, as integrate() does.
+    public void set(int i, double x, double y, double dx, double dy, float ttl) {
+        int p = physical(i);
+        this.x[p] = x;
+        this.y[p] = y;
+        this.dx[p] = dx;
+        this.dy[p] = dy;
+        this.ttl[p] = ttl;
+        this.shade[p] = palette == null ? 0 : (byte) palette.indexOf(ttl);
+    }
+
+    public void accelerate(int i, double ax, double ay) {
+        int p = physical(i);
+        dx[p] += ax;
+        dy[p] += ay;
+    }
+
+    // Retired particles stay in place as dead slots, so the store stays lifetime-ordered. A RETIRED_TTL marker
+    // (integrate() keeps it at -infinity) lets removeExpired() count the ones still held, and once they pass
+    // RETIRED_COMPACT_RATIO of the store it compacts from the first of them onwards.
+    public void retire(int i) {
+        int p = physical(i);
+        if (ttl[p] == RETIRED_TTL) {
+            return;
+        }
+        ttl[p] = RETIRED_TTL;
+        shade[p] = 0;
+        retired.incrementAndGet();
+        firstRetired.accumulateAndGet(i, Math::min);
+    }
+
+    public void remove(int i) {
+        int last = physical(--size);
+        int p = physical(i);
+        if (ttl[p] == RETIRED_TTL) {
+            retired.decrementAndGet();
+        }
+        if (p != last) {
+            x[p] = x[last];
+            y[p] = y[last];
+            dx[p] = dx[last];
+            dy[p] = dy[last];
+            ttl[p] = ttl[last];
+            shade[p] = shade[last];
+            lifetimeOrdered = false;
+        }
+        if (size == 0) {
+            clear();
+        }
+    }
+
+    public int removeExpired() {
+        if (!lifetimeOrdered) {
+            return removeDead();
+        }
+        int expired = 0;
+        int reclaimed = 0;
+        while (expired < size && ttl[physical(expired)] <= 0) {
+            if (ttl[physical(expired)] == RETIRED_TTL) {
+                reclaimed++;
+            }
+            expired++;
+        }
+        head = physical(expired);
+        size -= expired;
+        int holes = retired.addAndGet(-reclaimed);
+        if (holes <= 0) {
+            retired.set(0);
+            firstRetired.set(Integer.MAX_VALUE);
+            return expired;
+        }
+        int first = Math.max(0, firstRetired.get() - expired);
+        firstRetired.set(first);
+        if (holes > size * RETIRED_COMPACT_RATIO) {
+            expired += compact(first);
+        }
+        return expired;
+    }
+
+    public int removeDead() {
+        return compact(0);
+    }
+
+    // Stable, so a lifetime-ordered store stays ordered; only a full pass can find out that it has become ordered.
+    private int compact(int from) {
+        int kept = Math.min(from, size);
+        boolean ordered = true;
+        float previous = Float.NEGATIVE_INFINITY;
+        for (int i = kept; i < size; i++) {
+            int p = physical(i);
+            float life = ttl[p];
+            if (life <= 0) {
+                continue;
+            }
+            if (kept != i) {
+                int q = physical(kept);
+                x[q] = x[p];
+                y[q] = y[p];
+                dx[q] = dx[p];
+                dy[q] = dy[p];
+                ttl[q] = life;
+                shade[q] = shade[p];
+            }
+            ordered &= life >= previous;
+            previous = life;
+            kept++;
+        }
+        int removed = size - kept;
+        size = kept;
+        if (from == 0) {
+            lifetimeOrdered = ordered;
+        }
+        retired.set(0);
+        firstRetired.set(Integer.MAX_VALUE);
+        if (size == 0) {
+            clear();
+        }
+        return removed;
+    }
+
+    public void truncate(int size) {
+        if (size < this.size) {
+            for (int i = Math.max(0, size); i < this.size; i++) {
+                if (ttl[physical(i)] == RETIRED_TTL) {
+                    retired.decrementAndGet();
+                }
+            }
+            this.size = Math.max(0, size);
+            if (this.size == 0) {
+                clear();
+            }
+        }
+    }
+
+    public int integrate(int start, int end) {
+        int from = physical(start);
+        int count = end - start;
+        int wrapped = Math.max(0, from + count - x.length);
+        return integratePhysical(from, from + count - wrapped) + integratePhysical(0, wrapped);
+    }
+
+    private int integratePhysical(int start, int end) {
+        int alive = integrator.integrate(x, y, dx, dy, ttl, start, end);
+        if (palette != null) {
+            for (int i = start; i < end; i++) {
+                shade[i] = (byte) palette.indexOf(ttl[i]);
+            }
+        }
+        return alive;
+    }
+
+    public void ensureCapacity(int capacity) {
+        if (capacity > x.length) {
+            double[] oldX = x, oldY = y, oldDx = dx, oldDy = dy;
+            float[] oldTtl = ttl;
+            byte[] oldShade = shade;
+            int oldHead = head;
+            int oldMask = mask;
+            allocate(powerOfTwo(capacity));
+            for (int i = 0; i < size; i++) {
+                int p = (oldHead + i) & oldMask;
+                x[i] = oldX[p];
+                y[i] = oldY[p];
+                dx[i] = oldDx[p];
+                dy[i] = oldDy[p];
+                ttl[i] = oldTtl[p];
+                shade[i] = oldShade[p];
+            }
+        }
+    }
+
+    public void clear() {
+        size = 0;
+        head = 0;
+        lifetimeOrdered = true;
+        retired.set(0);
+        firstRetired.set(Integer.MAX_VALUE);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isLifetimeOrdered() {
+        return lifetimeOrdered;
+    }
+
+    public boolean isAlive(int i) {
+        return ttl[physical(i)] > 0;
+    }
+
+    public double x(int i) {
+        return x[physical(i)];
+    }
+
+    public double y(int i) {
+        return y[physical(i)];
+    }
+
+    public double dx(int i) {
+        return dx[physical(i)];
+    }
+
+    public double dy(int i) {
+        return dy[physical(i)];
+    }
+
+    public float ttl(int i) {
+        return ttl[physical(i)];
+    }
+
+    public int shade(int i) {
+        return shade[physical(i)] & 0xFF;
+    }
+
+    public AlphaPalette getPalette() {
+        return palette;
+    }
+
+    public void setPalette(AlphaPalette palette) {
+        this.palette = palette;
+        for (int i = 0; i < size; i++) {
+            int p = physical(i);
+            shade[p] = palette == null ? 0 : (byte) palette.indexOf(ttl[p]);
+        }
+    }
+
+    public Integrator getIntegrator() {
+        return integrator;
+    }
+
+    public void setIntegrator(Integrator integrator) {
+        this.integrator = integrator;
+    }
+
+    private int physical(int i) {
+        return (head + i) & mask;
+    }
+
+    private void allocate(int capacity) {
+        x = new double[capacity];
+        y = new double[capacity];
+        dx = new double[capacity];
+        dy = new double[capacity];
+        ttl = new float[capacity];
+        shade = new byte[capacity];
+        mask = capacity - 1;
+        head = 0;
+    }
+
+    private static int powerOfTwo(int capacity) {
+        return capacity <= 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,22 @@
+package engine.src;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name("particles.Phase")
+@Label("Particle Frame Phase")
+@Category({"Particle Engine", "Frame"})
+@Description("Time spent in one phase of a simulation frame")
+@StackTrace(false)
+class PhaseEvent extends jdk.jfr.Event {
+    @Label("Phase")
+    String phase;
+
+    @Label("Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    long nanos;
+}
\ No newline at end of file
@@ -0,0 +1,208 @@
+package engine.src;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+public class PixelRasterizer implements ParticleSink {
+    private static final int BAND_HEIGHT = 32;
+    private static final int MAX_STAMP = 64;
+    private static final int SUBSAMPLES = 4;
+
+    private final int width, height;
+    private final int bands;
+    private final int[] pixels;
+    private final FrameScheduler scheduler;
+    private final Stamp[] stamps = new Stamp[MAX_STAMP + 1];
+
+    private int[] left = new int[1024];
+    private int[] top = new int[1024];
+    private int[] color = new int[1024];
+    private Stamp[] stamp = new Stamp[1024];
+    private int count;
+
+    private final int[] bandStart;
+    private final int[] bandFrame;
+    private int[] bandItems = new int[1024];
+    private int frame;
+
+    public PixelRasterizer(int width, int height) {
+        this(width, height, FrameScheduler.shared());
+    }
+
+    public PixelRasterizer(int width, int height, FrameScheduler scheduler) {
+        this.width = width;
+        this.height = height;
+        this.scheduler = scheduler;
+        this.bands = (height + BAND_HEIGHT - 1) / BAND_HEIGHT;
+        this.pixels = new int[width * height];
+        this.bandStart = new int[bands + 1];
+        this.bandFrame = new int[bands];
+        for (int size : new int[] {5, 6, 10}) {
+            stamps[size] = new Stamp(size);
+        }
+    }
+
+    public void clear() {
+        count = 0;
+    }
+
+    @Override
+    public void fill(double x, double y, double size, AlphaPalette palette, int shade) {
+        int argb = palette.premultipliedArgb(shade);
+        if (argb == 0) {
+            return;
+        }
+        int diameter = Math.max(1, Math.min(MAX_STAMP, (int) Math.round(size)));
+        int px = (int) Math.floor(x);
+        int py = (int) Math.floor(y);
+        if (px >= width || py >= height || px + diameter <= 0 || py + diameter <= 0) {
+            return;
+        }
+        Stamp dot = stamps[diameter];
+        if (dot == null) {
+            dot = stamps[diameter] = new Stamp(diameter);
+        }
+        if (count == left.length) {
+            int capacity = count * 2;
+            left = Arrays.copyOf(left, capacity);
+            top = Arrays.copyOf(top, capacity);
+            color = Arrays.copyOf(color, capacity);
+            stamp = Arrays.copyOf(stamp, capacity);
+        }
+        left[count] = px;
+        top[count] = py;
+        color[count] = argb;
+        stamp[count] = dot;
+        count++;
+    }
+
+    public int[] render() {
+        binByBand();
+        frame++;
+        boolean completed = scheduler.forEach(bands, 1, (first, last) -> {
+            for (int band = first; band < last; band++) {
+                rasterizeBand(band);
+            }
+        }, 1, TimeUnit.SECONDS);
+        if (!completed) {
+            // Bands skipped after the deadline would otherwise keep the previous frame's pixels.
+            for (int band = 0; band < bands; band++) {
+                if (bandFrame[band] != frame) {
+                    rasterizeBand(band);
+                }
+            }
+        }
+        return pixels;
+    }
+
+    public int[] getPixels() {
+        return pixels;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    private void binByBand() {
+        Arrays.fill(bandStart, 0);
+        int total = 0;
+        for (int i = 0; i < count; i++) {
+            int first = Math.max(0, top[i]) / BAND_HEIGHT;
+            int last = Math.min(height - 1, top[i] + stamp[i].size - 1) / BAND_HEIGHT;
+            for (int band = first; band <= last; band++) {
+                bandStart[band + 1]++;
+            }
+            total += last - first + 1;
+        }
+        for (int band = 0; band < bands; band++) {
+            bandStart[band + 1] += bandStart[band];
+        }
+        if (bandItems.length < total) {
+            bandItems = new int[Math.max(total, bandItems.length * 2)];
+        }
+        int[] cursor = Arrays.copyOf(bandStart, bands);
+        for (int i = 0; i < count; i++) {
+            int first = Math.max(0, top[i]) / BAND_HEIGHT;
+            int last = Math.min(height - 1, top[i] + stamp[i].size - 1) / BAND_HEIGHT;
+            for (int band = first; band <= last; band++) {
+                bandItems[cursor[band]++] = i;
+            }
+        }
+    }
+
+    private void rasterizeBand(int band) {
+        int y0 = band * BAND_HEIGHT;
+        int y1 = Math.min(height, y0 + BAND_HEIGHT);
+        Arrays.fill(pixels, y0 * width, y1 * width, 0);
+        bandFrame[band] = frame;
+        for (int k = bandStart[band]; k < bandStart[band + 1]; k++) {
+            int i = bandItems[k];
+            Stamp dot = stamp[i];
+            int argb = color[i];
+            int rowStart = Math.max(y0, top[i]);
+            int rowEnd = Math.min(y1, top[i] + dot.size);
+            int colStart = Math.max(0, left[i]);
+            int colEnd = Math.min(width, left[i] + dot.size);
+            for (int row = rowStart; row < rowEnd; row++) {
+                int coverageRow = (row - top[i]) * dot.size - left[i];
+                int pixelRow = row * width;
+                for (int col = colStart; col < colEnd; col++) {
+                    int coverage = dot.coverage[coverageRow + col];
+                    if (coverage != 0) {
+                        int p = pixelRow + col;
+                        pixels[p] = blend(argb, coverage, pixels[p]);
+                    }
+                }
+            }
+        }
+    }
+
+    private static int blend(int src, int coverage, int dst) {
+        int a = div255((src >>> 24) * coverage);
+        int r = div255(((src >> 16) & 0xFF) * coverage);
+        int g = div255(((src >> 8) & 0xFF) * coverage);
+        int b = div255((src & 0xFF) * coverage);
+        int inverse = 255 - a;
+        a += div255((dst >>> 24) * inverse);
+        r += div255(((dst >> 16) & 0xFF) * inverse);
+        g += div255(((dst >> 8) & 0xFF) * inverse);
+        b += div255((dst & 0xFF) * inverse);
+        return a << 24 | r << 16 | g << 8 | b;
+    }
+
+    private static int div255(int v) {
+        v += 128;
+        return (v + (v >> 8)) >> 8;
+    }
+
+    private static class Stamp {
+        final int size;
+        final int[] coverage;
+
+        Stamp(int size) {
+            this.size = size;
+            this.coverage = new int[size * size];
+            double radius = size / 2.0;
+            int samples = SUBSAMPLES * SUBSAMPLES;
+            for (int row = 0; row < size; row++) {
+                for (int col = 0; col < size; col++) {
+                    int inside = 0;
+                    for (int sy = 0; sy < SUBSAMPLES; sy++) {
+                        for (int sx = 0; sx < SUBSAMPLES; sx++) {
+                            double ox = col + (sx + 0.5) / SUBSAMPLES - radius;
+                            double oy = row + (sy + 0.5) / SUBSAMPLES - radius;
+                            if (ox * ox + oy * oy <= radius * radius) {
+                                inside++;
+                            }
+                        }
+                    }
+                    coverage[row * size + col] = (inside * 255 + samples / 2) / samples;
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
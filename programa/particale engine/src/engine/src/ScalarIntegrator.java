@@ -0,0 +1,19 @@
+package engine.src;
+
+public class ScalarIntegrator implements Integrator {
+    static final ScalarIntegrator INSTANCE = new ScalarIntegrator();
+
+    @Override
+    public int integrate(double[] x, double[] y, double[] dx, double[] dy, float[] ttl, int start, int end) {
+        int alive = 0;
+        for (int i = start; i < end; i++) {
+            x[i] += dx[i];
+            y[i] += dy[i];
+            dy[i] += 0.1;
+            if (--ttl[i] > 0) {
+                alive++;
+            }
+        }
+        return alive;
+    }
+}
\ No newline at end of file
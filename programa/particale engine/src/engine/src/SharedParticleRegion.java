@@ -0,0 +1,187 @@
+package engine.src;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.net.ProtocolException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class SharedParticleRegion implements Closeable {
+    private static final int MAGIC = 0x50534852;
+    private static final int HEADER_BYTES = 64;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int CAPACITY_OFFSET = 4;
+    private static final int COUNT_OFFSET = 8;
+    private static final int REQUEST_OFFSET = 16;
+    private static final int DONE_OFFSET = 24;
+    private static final int PARTICLE_BYTES = 4 * Double.BYTES + Float.BYTES;
+    private static final VarHandle SEQUENCE = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final Path path;
+    private final FileChannel file;
+    private final boolean owner;
+    private MappedByteBuffer map;
+    private int capacity;
+    private long sequence;
+
+    private SharedParticleRegion(Path path, FileChannel file, boolean owner) {
+        this.path = path;
+        this.file = file;
+        this.owner = owner;
+    }
+
+    public static SharedParticleRegion create(Path path, int capacity) throws IOException {
+        FileChannel file = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        SharedParticleRegion region = new SharedParticleRegion(path, file, true);
+        region.remap(Math.max(1, capacity));
+        region.map.putInt(MAGIC_OFFSET, MAGIC);
+        region.map.putInt(CAPACITY_OFFSET, region.capacity);
+        return region;
+    }
+
+    public static SharedParticleRegion open(Path path) throws IOException {
+        FileChannel file = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        SharedParticleRegion region = new SharedParticleRegion(path, file, false);
+        MappedByteBuffer header = file.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+        header.order(ByteOrder.nativeOrder());
+        if (header.getInt(MAGIC_OFFSET) != MAGIC) {
+            file.close();
+            throw new ProtocolException("Not a shared particle region: " + path);
+        }
+        region.remap(header.getInt(CAPACITY_OFFSET));
+        region.sequence = (long) SEQUENCE.getAcquire(region.map, DONE_OFFSET);
+        return region;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getCount() {
+        return map.getInt(COUNT_OFFSET);
+    }
+
+    public void write(ParticleStore store, int start, int end) throws IOException {
+        int count = end - start;
+        if (count > capacity) {
+            remap(Math.max(count, capacity * 2));
+            map.putInt(CAPACITY_OFFSET, capacity);
+        }
+        for (int j = 0; j < count; j++) {
+            int i = start + j;
+            map.putDouble(x(j), store.x(i));
+            map.putDouble(y(j), store.y(i));
+            map.putDouble(dx(j), store.dx(i));
+            map.putDouble(dy(j), store.dy(i));
+            map.putFloat(ttl(j), store.ttl(i));
+        }
+        map.putInt(COUNT_OFFSET, count);
+    }
+
+    public void post() {
+        SEQUENCE.setRelease(map, REQUEST_OFFSET, ++sequence);
+    }
+
+    public boolean isDone() {
+        return (long) SEQUENCE.getAcquire(map, DONE_OFFSET) == sequence;
+    }
+
+    public int read(ParticleStore store, int start) {
+        int count = map.getInt(COUNT_OFFSET);
+        store.ensureCapacity(start + count);
+        for (int j = 0; j < count; j++) {
+            int i = start + j;
+            double x = map.getDouble(x(j));
+            double y = map.getDouble(y(j));
+            double dx = map.getDouble(dx(j));
+            double dy = map.getDouble(dy(j));
+            float ttl = map.getFloat(ttl(j));
+            if (i < store.size()) {
+                store.set(i, x, y, dx, dy, ttl);
+            } else {
+                store.add(x, y, dx, dy, ttl);
+            }
+        }
+        return count;
+    }
+
+    public boolean pollRequest() throws IOException {
+        long request = (long) SEQUENCE.getAcquire(map, REQUEST_OFFSET);
+        if (request == sequence) {
+            return false;
+        }
+        sequence = request;
+        int published = map.getInt(CAPACITY_OFFSET);
+        if (published != capacity) {
+            remap(published);
+        }
+        return true;
+    }
+
+    // Same arithmetic as ScalarIntegrator, applied to the mapped slice so nothing is copied out.
+    public int integrate() {
+        int count = map.getInt(COUNT_OFFSET);
+        int alive = 0;
+        for (int j = 0; j < count; j++) {
+            double dy = map.getDouble(dy(j));
+            map.putDouble(x(j), map.getDouble(x(j)) + map.getDouble(dx(j)));
+            map.putDouble(y(j), map.getDouble(y(j)) + dy);
+            map.putDouble(dy(j), dy + 0.1);
+            float ttl = map.getFloat(ttl(j)) - 1;
+            map.putFloat(ttl(j), ttl);
+            if (ttl > 0) {
+                alive++;
+            }
+        }
+        return alive;
+    }
+
+    public void complete() {
+        SEQUENCE.setRelease(map, DONE_OFFSET, sequence);
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+        if (owner) {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    private void remap(int capacity) throws IOException {
+        map = file.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) capacity * PARTICLE_BYTES);
+        map.order(ByteOrder.nativeOrder());
+        this.capacity = capacity;
+    }
+
+    private int x(int j) {
+        return HEADER_BYTES + j * Double.BYTES;
+    }
+
+    private int y(int j) {
+        return HEADER_BYTES + (capacity + j) * Double.BYTES;
+    }
+
+    private int dx(int j) {
+        return HEADER_BYTES + (2 * capacity + j) * Double.BYTES;
+    }
+
+    private int dy(int j) {
+        return HEADER_BYTES + (3 * capacity + j) * Double.BYTES;
+    }
+
+    private int ttl(int j) {
+        return HEADER_BYTES + 4 * capacity * Double.BYTES + j * Float.BYTES;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,134 @@
+package engine.src;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+public class SimulationLoop implements Runnable {
+    private static final int MAX_CATCH_UP_STEPS = 5;
+    private static final long STOP_TIMEOUT_MILLIS = 2000;
+
+    private final long stepNanos;
+    private final Runnable simulate;
+    private final Consumer<ParticleSink> draw;
+    private final SnapshotBuffer snapshots = new SnapshotBuffer();
+    private volatile boolean running = true;
+    private volatile FrameGovernor governor;
+    private volatile FrameCapture capture;
+    private volatile Thread runner;
+
+    public SimulationLoop(long step, TimeUnit unit, Runnable simulate, Consumer<ParticleSink> draw) {
+        this.stepNanos = unit.toNanos(step);
+        this.simulate = simulate;
+        this.draw = draw;
+    }
+
+    public SnapshotBuffer getSnapshots() {
+        return snapshots;
+    }
+
+    public void setGovernor(FrameGovernor governor) {
+        this.governor = governor;
+    }
+
+    public void setCapture(FrameCapture capture) {
+        this.capture = capture;
+    }
+
+    public Thread start(String name) {
+        Thread thread = new Thread(this, name);
+        thread.setDaemon(true);
+        runner = thread;
+        thread.start();
+        return thread;
+    }
+
+    // Waits for the loop to finish its frame so the capture gets its index and trailer before the JVM exits.
+    public void stop() {
+        running = false;
+        Thread thread = runner;
+        if (thread == null || thread == Thread.currentThread()) {
+            return;
+        }
+        try {
+            thread.join(STOP_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (thread.isAlive()) {
+            System.err.println("Simulation error: " + thread.getName() + " did not stop within " + STOP_TIMEOUT_MILLIS + " ms");
+        }
+    }
+
+    @Override
+    public void run() {
+        runner = Thread.currentThread();
+        try {
+            loop();
+        } finally {
+            closeCapture();
+        }
+    }
+
+    private void loop() {
+        long previous = System.nanoTime();
+        long accumulator = stepNanos;
+        while (running && !Thread.currentThread().isInterrupted()) {
+            long now = System.nanoTime();
+            accumulator += now - previous;
+            previous = now;
+
+            FrameGovernor frameGovernor = governor;
+            int steps = 0;
+            while (accumulator >= stepNanos && steps < MAX_CATCH_UP_STEPS) {
+                simulate.run();
+                accumulator -= stepNanos;
+                steps++;
+            }
+            if (accumulator >= stepNanos) {
+                accumulator %= stepNanos;
+            }
+            if (steps > 0) {
+                FrameSnapshot snapshot = snapshots.beginWrite();
+                draw.accept(frameGovernor == null ? snapshot : frameGovernor.govern(snapshot));
+                snapshots.publish();
+                if (frameGovernor != null) {
+                    frameGovernor.observe((System.nanoTime() - now) / steps);
+                }
+                // Only this thread writes snapshots, so the published one stays intact until the next beginWrite().
+                record(snapshot, now);
+            }
+
+            long sleep = stepNanos - accumulator - (System.nanoTime() - previous);
+            if (sleep > 0) {
+                LockSupport.parkNanos(sleep);
+            }
+        }
+    }
+
+    private void record(FrameSnapshot snapshot, long now) {
+        FrameCapture frameCapture = capture;
+        if (frameCapture == null) {
+            return;
+        }
+        try {
+            frameCapture.record(snapshot, now);
+        } catch (IOException e) {
+            System.err.println("Recording error: " + e.getMessage());
+            closeCapture();
+        }
+    }
+
+    private void closeCapture() {
+        FrameCapture frameCapture = capture;
+        capture = null;
+        if (frameCapture != null) {
+            try {
+                frameCapture.close();
+            } catch (IOException e) {
+                System.err.println("Recording error: " + e.getMessage());
+            }
+        }
+    }
+}
\ No newline at end of file
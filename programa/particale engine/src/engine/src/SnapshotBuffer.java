@@ -0,0 +1,87 @@
+package engine.src;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Single writer, any number of readers. Each published snapshot is a generation tagged with its epoch (the sequence);
+// a reader pins the epoch it is looking at, and the writer only recycles retired generations nobody has pinned.
+public class SnapshotBuffer {
+    private static final long IDLE = -1;
+
+    private final AtomicReference<FrameSnapshot> latest = new AtomicReference<>(new FrameSnapshot());
+    private final List<Reader> readers = new CopyOnWriteArrayList<>();
+    private final ArrayDeque<FrameSnapshot> retired = new ArrayDeque<>();
+    private FrameSnapshot back = new FrameSnapshot();
+    private long published;
+
+    public FrameSnapshot beginWrite() {
+        back.clear();
+        return back;
+    }
+
+    public void publish() {
+        back.sequence = ++published;
+        retired.addLast(latest.getAndSet(back));
+        back = reclaim();
+    }
+
+    public long getEpoch() {
+        return latest.get().sequence;
+    }
+
+    public Reader register() {
+        Reader reader = new Reader();
+        readers.add(reader);
+        return reader;
+    }
+
+    // At most one retired generation per reader can be pinned, so the pool settles at readers + 2 snapshots.
+    private FrameSnapshot reclaim() {
+        for (Iterator<FrameSnapshot> it = retired.iterator(); it.hasNext(); ) {
+            FrameSnapshot snapshot = it.next();
+            if (!isPinned(snapshot.sequence)) {
+                it.remove();
+                return snapshot;
+            }
+        }
+        return new FrameSnapshot();
+    }
+
+    private boolean isPinned(long epoch) {
+        for (Reader reader : readers) {
+            if (reader.pinned == epoch) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public class Reader implements AutoCloseable {
+        private volatile long pinned = IDLE;
+
+        // The returned snapshot stays intact until this reader's next acquire(), release() or close().
+        public FrameSnapshot acquire() {
+            while (true) {
+                FrameSnapshot snapshot = latest.get();
+                long epoch = snapshot.sequence;
+                pinned = epoch;
+                if (latest.get() == snapshot && snapshot.sequence == epoch) {
+                    return snapshot;
+                }
+            }
+        }
+
+        public void release() {
+            pinned = IDLE;
+        }
+
+        @Override
+        public void close() {
+            release();
+            readers.remove(this);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,170 @@
+package engine.src;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+public class SpatialGrid {
+    private static final int MIN_CHUNK = 2048;
+
+    private final double cellSize;
+    private final int columns, rows, cells;
+    private final int[] cellStart;
+    private int[] cellOf = new int[1024];
+    private int[] items = new int[1024];
+    private int[] chunkOffsets = new int[0];
+    private ParticleStore store;
+    private int size;
+
+    public interface NeighborVisitor {
+        void visit(int index, int neighbor, double dx, double dy, double distanceSquared);
+    }
+
+    public SpatialGrid(double width, double height, double cellSize) {
+        this.cellSize = cellSize;
+        this.columns = Math.max(1, (int) Math.ceil(width / cellSize));
+        this.rows = Math.max(1, (int) Math.ceil(height / cellSize));
+        this.cells = columns * rows;
+        this.cellStart = new int[cells + 1];
+    }
+
+    public boolean rebuild(ParticleStore store) {
+        return rebuild(store, null);
+    }
+
+    public boolean rebuild(ParticleStore store, FrameScheduler scheduler) {
+        this.store = store;
+        this.size = store.size();
+        if (cellOf.length < size) {
+            cellOf = new int[Math.max(size, cellOf.length * 2)];
+            items = new int[cellOf.length];
+        }
+        int chunks = scheduler == null ? 1 : Math.max(1, Math.min(scheduler.getParallelism() * 4, size / MIN_CHUNK));
+        if (chunkOffsets.length < chunks * cells) {
+            chunkOffsets = new int[chunks * cells];
+        } else {
+            Arrays.fill(chunkOffsets, 0, chunks * cells, 0);
+        }
+
+        boolean counted = forEachChunk(scheduler, chunks, (first, last) -> {
+            for (int k = first; k < last; k++) {
+                int base = k * cells;
+                for (int i = chunkStart(k, chunks), end = chunkStart(k + 1, chunks); i < end; i++) {
+                    int cell = cellAt(store.x(i), store.y(i));
+                    cellOf[i] = cell;
+                    if (cell >= 0) {
+                        chunkOffsets[base + cell]++;
+                    }
+                }
+            }
+        });
+
+        int offset = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            cellStart[cell] = offset;
+            for (int k = 0; k < chunks; k++) {
+                int count = chunkOffsets[k * cells + cell];
+                chunkOffsets[k * cells + cell] = offset;
+                offset += count;
+            }
+        }
+        cellStart[cells] = offset;
+
+        boolean scattered = counted && forEachChunk(scheduler, chunks, (first, last) -> {
+            for (int k = first; k < last; k++) {
+                int base = k * cells;
+                for (int i = chunkStart(k, chunks), end = chunkStart(k + 1, chunks); i < end; i++) {
+                    int cell = cellOf[i];
+                    if (cell >= 0) {
+                        items[chunkOffsets[base + cell]++] = i;
+                    }
+                }
+            }
+        });
+        if (!scattered) {
+            Arrays.fill(cellStart, 0);
+            size = 0;
+        }
+        return scattered;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Particles outside the grid are left out (-1) rather than clamped, so offscreen ones don't pile into the border cells.
+    public int cellAt(double x, double y) {
+        int column = (int) Math.floor(x / cellSize);
+        int row = (int) Math.floor(y / cellSize);
+        if (column < 0 || column >= columns || row < 0 || row >= rows) {
+            return -1;
+        }
+        return row * columns + column;
+    }
+
+    public boolean contains(double x, double y) {
+        return cellAt(x, y) >= 0;
+    }
+
+    public int cellOf(int index) {
+        return cellOf[index];
+    }
+
+    public int query(double x, double y, double radius, NeighborVisitor visitor) {
+        return query(-1, x, y, radius, visitor);
+    }
+
+    public int neighbors(int index, double radius, NeighborVisitor visitor) {
+        if (cellOf[index] < 0) {
+            return 0;
+        }
+        return query(index, store.x(index), store.y(index), radius, visitor);
+    }
+
+    private int query(int index, double x, double y, double radius, NeighborVisitor visitor) {
+        int firstColumn = (int) Math.floor((x - radius) / cellSize);
+        int lastColumn = (int) Math.floor((x + radius) / cellSize);
+        int firstRow = (int) Math.floor((y - radius) / cellSize);
+        int lastRow = (int) Math.floor((y + radius) / cellSize);
+        if (lastColumn < 0 || firstColumn >= columns || lastRow < 0 || firstRow >= rows) {
+            return 0;
+        }
+        firstColumn = clamp(firstColumn, columns);
+        lastColumn = clamp(lastColumn, columns);
+        firstRow = clamp(firstRow, rows);
+        lastRow = clamp(lastRow, rows);
+        double radiusSquared = radius * radius;
+        int found = 0;
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int k = cellStart[row * columns + firstColumn], end = cellStart[row * columns + lastColumn + 1]; k < end; k++) {
+                int j = items[k];
+                if (j == index) {
+                    continue;
+                }
+                double dx = store.x(j) - x;
+                double dy = store.y(j) - y;
+                double distanceSquared = dx * dx + dy * dy;
+                if (distanceSquared <= radiusSquared) {
+                    visitor.visit(index, j, dx, dy, distanceSquared);
+                    found++;
+                }
+            }
+        }
+        return found;
+    }
+
+    private static int clamp(int cell, int count) {
+        return Math.max(0, Math.min(count - 1, cell));
+    }
+
+    private int chunkStart(int chunk, int chunks) {
+        return (int) ((long) size * chunk / chunks);
+    }
+
+    private static boolean forEachChunk(FrameScheduler scheduler, int chunks, FrameScheduler.RangeTask task) {
+        if (scheduler == null) {
+            task.run(0, chunks);
+            return true;
+        }
+        return scheduler.forEach(chunks, 1, task, 1, TimeUnit.SECONDS);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,34 @@
+package engine.src;
+
+public class Viewport {
+    public static final int DEFAULT_MIN_ALPHA = 4;
+
+    private final double width, height;
+    private final int minAlpha;
+
+    public Viewport(double width, double height) {
+        this(width, height, DEFAULT_MIN_ALPHA);
+    }
+
+    public Viewport(double width, double height, int minAlpha) {
+        this.width = width;
+        this.height = height;
+        this.minAlpha = minAlpha;
+    }
+
+    public boolean isVisible(double x, double y, double size) {
+        return x + size > 0 && y + size > 0 && x < width && y < height;
+    }
+
+    public boolean isVisible(double x, double y, double size, AlphaPalette palette, int shade) {
+        return isVisible(x, y, size) && palette.premultipliedArgb(shade) >>> 24 >= minAlpha;
+    }
+
+    public double getWidth() {
+        return width;
+    }
+
+    public double getHeight() {
+        return height;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,413 @@
+package engine.src;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+public class WorkerHub implements Closeable {
+    private static final int SHARED_CAPACITY = 16 * 1024;
+    private static final long SHARED_POLL_NANOS = 20_000;
+
+    private final Selector selector;
+    private final ServerSocketChannel server;
+    private final List<Worker> workers = new ArrayList<>();
+    private int round;
+    private int nextId;
+    private int evictAfter = 5;
+    private int evicted;
+    private Path sharedDirectory = Paths.get(System.getProperty("java.io.tmpdir"));
+
+    public interface Peer {
+        int getId();
+        int getIndex();
+        int getRoundSize();
+        long getRoundTripNanos();
+        boolean isShared();
+    }
+
+    public interface FrameEncoder {
+        void encode(Peer peer, ParticleChannel channel) throws IOException;
+    }
+
+    public interface FrameDecoder {
+        void decode(Peer peer, ParticleChannel channel) throws IOException;
+    }
+
+    public WorkerHub(int port) throws IOException {
+        this.selector = Selector.open();
+        this.server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(port));
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    public int getPort() throws IOException {
+        return ((InetSocketAddress) server.getLocalAddress()).getPort();
+    }
+
+    public synchronized int size() {
+        int ready = 0;
+        for (Worker worker : workers) {
+            if (worker.state != State.HANDSHAKE && worker.state != State.ATTACHING) {
+                ready++;
+            }
+        }
+        return ready;
+    }
+
+    public synchronized int[] readyIds() {
+        int[] ids = new int[workers.size()];
+        int count = 0;
+        for (Worker worker : workers) {
+            if (worker.state == State.IDLE) {
+                ids[count++] = worker.id;
+            }
+        }
+        return Arrays.copyOf(ids, count);
+    }
+
+    public synchronized boolean isConnected(int id) {
+        for (Worker worker : workers) {
+            if (worker.id == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public synchronized void setSharedDirectory(Path directory) {
+        this.sharedDirectory = directory;
+    }
+
+    public synchronized void setEvictAfter(int misses) {
+        this.evictAfter = misses;
+    }
+
+    public synchronized int getEvicted() {
+        return evicted;
+    }
+
+    public synchronized void evict(int id, String reason) {
+        for (Worker worker : workers) {
+            if (worker.id == id) {
+                evicted++;
+                drop(worker, reason);
+                return;
+            }
+        }
+    }
+
+    public synchronized void strikeStuck() {
+        pollShared(round);
+        List<Worker> stuck = new ArrayList<>();
+        for (Worker worker : workers) {
+            if (worker.state == State.SENDING || worker.state == State.AWAITING) {
+                stuck.add(worker);
+            }
+        }
+        for (Worker worker : stuck) {
+            strike(worker);
+        }
+    }
+
+    public boolean awaitWorkers(int count, long timeout, TimeUnit unit) throws IOException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (size() < count) {
+            long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remaining <= 0) {
+                return false;
+            }
+            poll(remaining);
+        }
+        return true;
+    }
+
+    public void poll(long timeoutMillis) throws IOException {
+        if (timeoutMillis > 0) {
+            selector.select(timeoutMillis);
+        } else {
+            selector.selectNow();
+        }
+        handleSelected();
+        pollShared(round);
+    }
+
+    public synchronized int exchange(FrameEncoder encoder, FrameDecoder decoder, long timeout, TimeUnit unit) throws IOException {
+        strikeStuck();
+        round++;
+        List<Worker> ready = new ArrayList<>();
+        for (Worker worker : workers) {
+            if (worker.state == State.IDLE) {
+                ready.add(worker);
+            }
+        }
+        for (int i = 0; i < ready.size(); i++) {
+            Worker worker = ready.get(i);
+            worker.index = i;
+            worker.roundSize = ready.size();
+            worker.round = round;
+            worker.decoder = decoder;
+            try {
+                encoder.encode(worker, worker.channel);
+                worker.dispatched = System.nanoTime();
+                worker.state = State.SENDING;
+                worker.send();
+            } catch (IOException e) {
+                drop(worker, e);
+            }
+        }
+
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (pending(round) > 0) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                break;
+            }
+            boolean sharedWaiting = pollShared(round);
+            if (pending(round) == 0) {
+                break;
+            }
+            if (sharedWaiting) {
+                selector.selectNow();
+                handleSelected();
+                LockSupport.parkNanos(Math.min(remaining, SHARED_POLL_NANOS));
+            } else {
+                selector.select(Math.max(1, TimeUnit.NANOSECONDS.toMillis(remaining)));
+                handleSelected();
+            }
+        }
+        int replies = 0;
+        for (Worker worker : ready) {
+            if (worker.replied == round) {
+                replies++;
+                worker.misses = Math.max(0, worker.misses - 1);
+            } else if (workers.contains(worker)) {
+                strike(worker);
+            }
+        }
+        return replies;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        for (Worker worker : workers) {
+            worker.channel.close();
+            if (worker.region != null) {
+                worker.region.close();
+            }
+        }
+        workers.clear();
+        server.close();
+        selector.close();
+    }
+
+    private synchronized boolean pollShared(int round) {
+        boolean waiting = false;
+        for (Worker worker : new ArrayList<>(workers)) {
+            if (worker.state == State.AWAITING && worker.channel.isShared()) {
+                try {
+                    worker.receive();
+                } catch (IOException e) {
+                    drop(worker, e);
+                    continue;
+                }
+                waiting |= worker.round == round && worker.state == State.AWAITING;
+            }
+        }
+        return waiting;
+    }
+
+    private int pending(int round) {
+        int pending = 0;
+        for (Worker worker : workers) {
+            if (worker.round == round && (worker.state == State.SENDING || worker.state == State.AWAITING)) {
+                pending++;
+            }
+        }
+        return pending;
+    }
+
+    private synchronized void handleSelected() throws IOException {
+        Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+            SelectionKey key = keys.next();
+            keys.remove();
+            if (!key.isValid()) {
+                continue;
+            }
+            if (key.isAcceptable()) {
+                accept();
+                continue;
+            }
+            Worker worker = (Worker) key.attachment();
+            try {
+                if (key.isWritable()) {
+                    worker.send();
+                }
+                if (key.isValid() && key.isReadable()) {
+                    if (worker.channel.isAwaitingShared()) {
+                        worker.channel.checkOpen();
+                    } else {
+                        worker.receive();
+                    }
+                }
+            } catch (IOException e) {
+                drop(worker, e);
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel socket;
+        while ((socket = server.accept()) != null) {
+            ParticleChannel channel = new ParticleChannel(socket);
+            channel.setBlocking(false);
+            Worker worker = new Worker(nextId++, channel);
+            worker.key = socket.register(selector, SelectionKey.OP_READ, worker);
+            workers.add(worker);
+        }
+    }
+
+    private void strike(Worker worker) {
+        if (++worker.misses >= evictAfter) {
+            evicted++;
+            drop(worker, "missed " + worker.misses + " deadlines");
+        }
+    }
+
+    private void drop(Worker worker, IOException e) {
+        drop(worker, e.getMessage());
+    }
+
+    private void drop(Worker worker, String reason) {
+        try {
+            System.err.println("Worker " + worker.channel.getChannel().getRemoteAddress() + " dropped: " + reason);
+        } catch (IOException ignored) {
+            System.err.println("Worker dropped: " + reason);
+        }
+        worker.key.cancel();
+        workers.remove(worker);
+        try {
+            worker.channel.close();
+            if (worker.region != null) {
+                worker.region.close();
+            }
+        } catch (IOException closeError) {
+            System.err.println("Worker close error: " + closeError.getMessage());
+        }
+    }
+
+    private void offerShared(Worker worker) throws IOException {
+        SocketChannel socket = worker.channel.getChannel();
+        InetSocketAddress remote = (InetSocketAddress) socket.getRemoteAddress();
+        if (sharedDirectory == null || !remote.getAddress().isLoopbackAddress()) {
+            worker.state = State.IDLE;
+            return;
+        }
+        Path path = sharedDirectory.resolve("particles-" + ProcessHandle.current().pid() + "-" + worker.id + ".shm");
+        worker.region = SharedParticleRegion.create(path, SHARED_CAPACITY);
+        worker.channel.sendAttach(path.toString());
+        worker.state = State.ATTACHING;
+    }
+
+    private enum State { HANDSHAKE, ATTACHING, IDLE, SENDING, AWAITING }
+
+    private class Worker implements Peer {
+        final int id;
+        final ParticleChannel channel;
+        SelectionKey key;
+        SharedParticleRegion region;
+        State state = State.HANDSHAKE;
+        FrameDecoder decoder;
+        int index;
+        int roundSize;
+        int round;
+        int replied;
+        int misses;
+        long dispatched;
+        long roundTrip;
+
+        Worker(int id, ParticleChannel channel) {
+            this.id = id;
+            this.channel = channel;
+        }
+
+        @Override
+        public int getId() {
+            return id;
+        }
+
+        @Override
+        public int getIndex() {
+            return index;
+        }
+
+        @Override
+        public int getRoundSize() {
+            return roundSize;
+        }
+
+        @Override
+        public long getRoundTripNanos() {
+            return roundTrip;
+        }
+
+        @Override
+        public boolean isShared() {
+            return channel.isShared();
+        }
+
+        void send() throws IOException {
+            if (channel.flushAvailable()) {
+                state = State.AWAITING;
+                key.interestOps(SelectionKey.OP_READ);
+            } else {
+                key.interestOps(SelectionKey.OP_WRITE);
+            }
+        }
+
+        void receive() throws IOException {
+            if (state == State.HANDSHAKE) {
+                if (channel.helloAvailable()) {
+                    offerShared(this);
+                }
+                return;
+            }
+            if (state == State.ATTACHING) {
+                if (channel.readAvailable()) {
+                    if (channel.decodeAttach().isEmpty()) {
+                        region.close();
+                    } else {
+                        channel.attach(region);
+                    }
+                    region = null;
+                    state = State.IDLE;
+                }
+                return;
+            }
+            if (!channel.readAvailable()) {
+                return;
+            }
+            if (state == State.AWAITING) {
+                state = State.IDLE;
+                if (round == WorkerHub.this.round) {
+                    replied = round;
+                    roundTrip = System.nanoTime() - dispatched;
+                    decoder.decode(this, channel);
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
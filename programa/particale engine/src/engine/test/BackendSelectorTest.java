@@ -0,0 +1,107 @@
+package engine.src;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import engine.src.BackendSelector.Backend;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class BackendSelectorTest {
+    private static final long BUDGET_NANOS = 1_000_000_000L / 60;
+    private static final int PARALLELISM = 4;
+    private static final int WORKERS = 2;
+    private static final long NANOS_PER_PARTICLE = 100;
+    private static final int PEAK = 600_000;
+    private static final int STEP = 1000;
+
+    @Test
+    void rampUpAndDownMovesEachWayOnce() {
+        BackendSelector selector = new BackendSelector(BUDGET_NANOS, TimeUnit.NANOSECONDS);
+        Backend backend = Backend.SEQUENTIAL;
+        List<Backend> visited = new ArrayList<>();
+        visited.add(backend);
+        int lastMove = -1;
+        int frame = 0;
+        for (int population : ramp()) {
+            Backend next = selector.select(backend, population, cost(backend, population), PARALLELISM, WORKERS);
+            if (next != backend) {
+                assertTrue(lastMove < 0 || frame - lastMove > 120, "moved again " + (frame - lastMove) + " frames after the last move");
+                lastMove = frame;
+                backend = next;
+                visited.add(backend);
+            }
+            frame++;
+        }
+
+        assertTrue(visited.size() <= 5, "too many transitions: " + visited);
+        assertTrue(visited.contains(Backend.DISTRIBUTIVE), "never scaled out: " + visited);
+        assertEquals(Backend.SEQUENTIAL, backend, "did not scale back down: " + visited);
+        int turns = 0;
+        for (int i = 2; i < visited.size(); i++) {
+            int before = visited.get(i - 1).ordinal() - visited.get(i - 2).ordinal();
+            int after = visited.get(i).ordinal() - visited.get(i - 1).ordinal();
+            if (Integer.signum(before) != Integer.signum(after)) {
+                turns++;
+            }
+        }
+        assertTrue(turns <= 1, "oscillated: " + visited);
+    }
+
+    @Test
+    void briefSpikeDoesNotMove() {
+        BackendSelector selector = new BackendSelector(BUDGET_NANOS, TimeUnit.NANOSECONDS);
+        long[] frames = new long[300];
+        Arrays.fill(frames, BUDGET_NANOS / 10);
+        Arrays.fill(frames, 50, 55, BUDGET_NANOS * 3);
+        for (long frameNanos : frames) {
+            assertEquals(Backend.SEQUENTIAL, selector.select(Backend.SEQUENTIAL, 100_000, frameNanos, PARALLELISM, 0));
+        }
+    }
+
+    @Test
+    void singleCoreSkipsParallel() {
+        BackendSelector selector = new BackendSelector(BUDGET_NANOS, TimeUnit.NANOSECONDS);
+        Backend backend = Backend.SEQUENTIAL;
+        for (int frame = 0; frame < 100 && backend == Backend.SEQUENTIAL; frame++) {
+            backend = selector.select(backend, 200_000, BUDGET_NANOS, 1, WORKERS);
+        }
+        assertEquals(Backend.DISTRIBUTIVE, backend);
+    }
+
+    @Test
+    void losingTheLastWorkerLeavesDistributiveAtOnce() {
+        BackendSelector selector = new BackendSelector(BUDGET_NANOS, TimeUnit.NANOSECONDS);
+        assertEquals(Backend.PARALLEL, selector.select(Backend.DISTRIBUTIVE, 200_000, BUDGET_NANOS / 4, PARALLELISM, 0));
+        assertEquals(Backend.SEQUENTIAL, selector.select(Backend.DISTRIBUTIVE, 200_000, BUDGET_NANOS / 4, 1, 0));
+    }
+
+    private static List<Integer> ramp() {
+        List<Integer> populations = new ArrayList<>();
+        for (int population = 0; population <= PEAK; population += STEP) {
+            populations.add(population);
+        }
+        for (int frame = 0; frame < 300; frame++) {
+            populations.add(PEAK);
+        }
+        for (int population = PEAK; population >= 0; population -= STEP) {
+            populations.add(population);
+        }
+        return populations;
+    }
+
+    private static long cost(Backend backend, int population) {
+        long sequential = population * NANOS_PER_PARTICLE;
+        switch (backend) {
+            case PARALLEL:
+                return sequential / PARALLELISM;
+            case DISTRIBUTIVE:
+                return sequential / (PARALLELISM * WORKERS);
+            default:
+                return sequential;
+        }
+    }
+}
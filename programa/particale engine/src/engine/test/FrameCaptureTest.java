@@ -0,0 +1,90 @@
+package engine.src;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class FrameCaptureTest {
+    private static final AlphaPalette PALETTE = AlphaPalette.rgb(0xFF69B4, 100);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void rotatesIntoCappedIndexedSegments() throws Exception {
+        long segmentBytes = 64 * 1024;
+        FrameSnapshot snapshot = snapshot(2000);
+        try (FrameCapture capture = new FrameCapture(directory, "test", segmentBytes, 3)) {
+            for (int frame = 0; frame < 400; frame++) {
+                capture.record(snapshot, frame * 16_000_000L);
+            }
+        }
+
+        List<Path> segments = segments();
+        assertEquals(3, segments.size(), segments.toString());
+        for (Path segment : segments) {
+            assertTrue(Files.size(segment) < segmentBytes + FrameRecorder.DEFAULT_CHUNK_BYTES, segment + " is " + Files.size(segment) + " bytes");
+            try (FrameReplay replay = new FrameReplay(segment)) {
+                assertTrue(replay.isIndexed(), segment + " has no trailer");
+                assertTrue(replay.frames() > 0);
+                assertEquals(2000, replay.replay(0, new FrameSnapshot()));
+            }
+        }
+        assertEquals(segments.get(segments.size() - 1), FrameCapture.latest(directory, "test"));
+    }
+
+    @Test
+    void offWithoutDirectoryProperty() throws Exception {
+        assertNull(System.getProperty(FrameCapture.DIRECTORY_PROPERTY));
+        assertNull(FrameCapture.fromProperties("test"));
+    }
+
+    @Test
+    void recorderRefusesToOverwrite() throws Exception {
+        Path existing = Files.writeString(directory.resolve("existing.prec"), "hitch");
+        assertThrows(FileAlreadyExistsException.class, () -> new FrameRecorder(existing));
+        assertEquals("hitch", Files.readString(existing));
+    }
+
+    @Test
+    void stoppingTheLoopClosesTheCapture() throws Exception {
+        FrameSnapshot frame = snapshot(100);
+        SimulationLoop loop = new SimulationLoop(1, TimeUnit.MILLISECONDS, () -> { }, frame::replay);
+        loop.setCapture(new FrameCapture(directory, "loop", 1L << 30, 1));
+        Thread thread = loop.start("capture-test");
+        Thread.sleep(100);
+        loop.stop();
+
+        assertFalse(thread.isAlive());
+        try (FrameReplay replay = new FrameReplay(segments().get(0))) {
+            assertTrue(replay.isIndexed(), "stop() left the capture without its trailer");
+            assertTrue(replay.frames() > 0);
+        }
+    }
+
+    private List<Path> segments() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static FrameSnapshot snapshot(int particles) {
+        FrameSnapshot snapshot = new FrameSnapshot();
+        for (int i = 0; i < particles; i++) {
+            snapshot.fill(i % 800, i / 800 * 7.5, 6, PALETTE, i % 100);
+        }
+        return snapshot;
+    }
+}
@@ -0,0 +1,71 @@
+package engine.src;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+class LoadBalancerTest {
+    private static final double HYSTERESIS = 0.05;
+    private static final double MAX_SHIFT = 0.1;
+    private static final double EPSILON = 1e-9;
+
+    @Test
+    void unmeasuredWorkersSplitEvenly() {
+        LoadBalancer balancer = new LoadBalancer();
+        assertArrayEquals(new double[]{1 / 3.0, 1 / 3.0, 1 / 3.0}, balancer.shares(new int[]{1, 2, 3}), EPSILON);
+    }
+
+    @Test
+    void disabledBalancerIgnoresThroughput() {
+        LoadBalancer balancer = new LoadBalancer();
+        balancer.setEnabled(false);
+        balancer.record(1, 1000, 1_000_000);
+        balancer.record(2, 1000, 50_000_000);
+        assertArrayEquals(new double[]{0.5, 0.5}, balancer.shares(new int[]{1, 2}), EPSILON);
+    }
+
+    @Test
+    void smallImbalanceStaysInsideHysteresis() {
+        LoadBalancer balancer = new LoadBalancer();
+        int[] ids = {1, 2};
+        balancer.record(1, 1000, 1_000_000);
+        balancer.record(2, 1080, 1_000_000);
+        for (int call = 0; call < 50; call++) {
+            assertArrayEquals(new double[]{0.5, 0.5}, balancer.shares(ids), EPSILON, "call " + call);
+        }
+    }
+
+    @Test
+    void sharesMoveAtMostMaxShiftPerCall() {
+        LoadBalancer balancer = new LoadBalancer();
+        int[] ids = {1, 2, 3};
+        balancer.record(1, 1000, 8_000_000);
+        balancer.record(2, 1000, 1_000_000);
+        balancer.record(3, 1000, 1_000_000);
+        double[] target = {1 / 17.0, 8 / 17.0, 8 / 17.0};
+
+        double[] previous = balancer.shares(ids);
+        for (int call = 0; call < 40; call++) {
+            double[] shares = balancer.shares(ids);
+            assertEquals(1, Arrays.stream(shares).sum(), EPSILON);
+            for (int i = 0; i < ids.length; i++) {
+                double shift = Math.abs(shares[i] - previous[i]);
+                assertTrue(shift <= MAX_SHIFT + EPSILON, "worker " + ids[i] + " moved " + shift + " on call " + call);
+            }
+            previous = shares;
+        }
+        for (int i = 0; i < ids.length; i++) {
+            assertEquals(target[i], previous[i], HYSTERESIS, "worker " + ids[i]);
+        }
+    }
+
+    @Test
+    void apportionHandsOutEveryParticle() {
+        int[] counts = LoadBalancer.apportion(1001, new double[]{0.2, 0.3, 0.5});
+        assertEquals(1001, Arrays.stream(counts).sum());
+        assertArrayEquals(new int[]{200, 300, 501}, counts);
+    }
+}
@@ -0,0 +1,94 @@
+package engine.src;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class ParticleStoreTest {
+    @Test
+    void paletteSwapKeepsEveryParticle() {
+        AlphaPalette pink = AlphaPalette.rgb(0xFF69B4, 100);
+        AlphaPalette red = AlphaPalette.rgb(0xFF0000, 80);
+        ParticleStore store = new ParticleStore(pink);
+        new ParticleSpawner().spawn(store, 400, 250, 5000, 80);
+        for (int frame = 0; frame < 10; frame++) {
+            store.integrate(0, store.size());
+        }
+        ParticleStore before = new ParticleStore();
+        for (int i = 0; i < store.size(); i++) {
+            before.add(store.x(i), store.y(i), store.dx(i), store.dy(i), store.ttl(i));
+        }
+
+        store.setPalette(red);
+
+        assertEquals(before.size(), store.size());
+        for (int i = 0; i < store.size(); i++) {
+            assertEquals(before.x(i), store.x(i));
+            assertEquals(before.y(i), store.y(i));
+            assertEquals(before.dx(i), store.dx(i));
+            assertEquals(before.dy(i), store.dy(i));
+            assertEquals(before.ttl(i), store.ttl(i));
+            assertEquals(red.indexOf(store.ttl(i)), store.shade(i));
+        }
+    }
+
+    @Test
+    void retiredSlotsAreReclaimedInOrder() {
+        ParticleStore store = ordered(1000);
+        for (int i = 100; i < 130; i++) {
+            store.retire(i);
+        }
+        store.removeExpired();
+
+        assertEquals(970, store.size());
+        assertTrue(store.isLifetimeOrdered());
+        for (int i = 0; i < store.size(); i++) {
+            assertTrue(store.isAlive(i), "dead slot left at " + i);
+            assertEquals(i < 100 ? i + 1 : i + 31, store.ttl(i));
+        }
+    }
+
+    @Test
+    void fewRetiredSlotsWaitForCompaction() {
+        ParticleStore store = ordered(1000);
+        store.retire(500);
+        store.removeExpired();
+
+        assertEquals(1000, store.size());
+        assertFalse(store.isAlive(500));
+    }
+
+    @Test
+    void retiredSlotsLeavingAtTheHeadAreNotCountedAgain() {
+        ParticleStore store = ordered(1000);
+        store.retire(500);
+        for (int frame = 0; frame < 40; frame++) {
+            store.retire(0);
+            store.removeExpired();
+        }
+
+        assertEquals(960, store.size());
+        assertFalse(store.isAlive(460));
+    }
+
+    @Test
+    void retiredSlotsStayDeadThroughIntegration() {
+        ParticleStore store = ordered(100);
+        store.retire(50);
+        for (int frame = 0; frame < 5; frame++) {
+            store.integrate(0, store.size());
+        }
+        assertFalse(store.isAlive(50));
+        assertEquals(0, store.shade(50));
+    }
+
+    private static ParticleStore ordered(int count) {
+        ParticleStore store = new ParticleStore(AlphaPalette.rgb(0xFF69B4, 100));
+        for (int i = 0; i < count; i++) {
+            store.add(400, 250, 0, 0, i + 1);
+        }
+        return store;
+    }
+}
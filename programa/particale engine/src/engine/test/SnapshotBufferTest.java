@@ -0,0 +1,116 @@
+package engine.src;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class SnapshotBufferTest {
+    private static final int READERS = 3;
+    private static final long EPOCHS = 200_000;
+    private static final int MAX_PARTICLES = 64;
+    private static final int WRAP = 1 << 20;
+    private static final AlphaPalette PALETTE = AlphaPalette.rgb(0xFFFFFF, 80);
+
+    @Test
+    void readerSeesLatestEpoch() {
+        SnapshotBuffer buffer = new SnapshotBuffer();
+        try (SnapshotBuffer.Reader reader = buffer.register()) {
+            write(buffer, 1);
+            write(buffer, 2);
+            FrameSnapshot snapshot = reader.acquire();
+            assertEquals(2, snapshot.getSequence());
+            assertEquals(particles(2), snapshot.size());
+        }
+    }
+
+    @Test
+    void pinnedGenerationIsNeverRecycled() {
+        SnapshotBuffer buffer = new SnapshotBuffer();
+        try (SnapshotBuffer.Reader reader = buffer.register()) {
+            write(buffer, 1);
+            FrameSnapshot pinned = reader.acquire();
+            for (long epoch = 2; epoch < 100; epoch++) {
+                write(buffer, epoch);
+                assertEquals(1, pinned.getSequence());
+                assertEquals(0, tears(pinned, 1));
+            }
+        }
+    }
+
+    @Test
+    void concurrentReadersNeverSeeTornSnapshots() throws Exception {
+        SnapshotBuffer buffer = new SnapshotBuffer();
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicLong torn = new AtomicLong();
+        AtomicLong reversed = new AtomicLong();
+        AtomicLong reads = new AtomicLong();
+        List<Thread> readers = new ArrayList<>();
+        for (int r = 0; r < READERS; r++) {
+            SnapshotBuffer.Reader reader = buffer.register();
+            Thread thread = new Thread(() -> {
+                long last = 0;
+                try (reader) {
+                    while (!done.get()) {
+                        FrameSnapshot snapshot = reader.acquire();
+                        long epoch = snapshot.getSequence();
+                        if (epoch < last) {
+                            reversed.incrementAndGet();
+                        }
+                        last = epoch;
+                        if (tears(snapshot, epoch) > 0 || snapshot.getSequence() != epoch) {
+                            torn.incrementAndGet();
+                        }
+                        reads.incrementAndGet();
+                    }
+                }
+            }, "snapshot-reader-" + r);
+            readers.add(thread);
+            thread.start();
+        }
+
+        for (long epoch = 1; epoch <= EPOCHS; epoch++) {
+            write(buffer, epoch);
+            if ((epoch & 1023) == 0) {
+                Thread.yield();
+            }
+        }
+        done.set(true);
+        for (Thread thread : readers) {
+            thread.join();
+        }
+
+        assertTrue(reads.get() > 0, "readers never ran");
+        assertEquals(0, torn.get(), "torn reads out of " + reads.get());
+        assertEquals(0, reversed.get(), "out-of-order reads out of " + reads.get());
+        assertEquals(EPOCHS, buffer.getEpoch());
+    }
+
+    private static void write(SnapshotBuffer buffer, long epoch) {
+        FrameSnapshot snapshot = buffer.beginWrite();
+        for (int i = 0; i < particles(epoch); i++) {
+            snapshot.fill(epoch % WRAP, i, 1, PALETTE, 0);
+        }
+        buffer.publish();
+    }
+
+    // Epoch 0 is the empty snapshot the buffer starts with.
+    private static int particles(long epoch) {
+        return epoch == 0 ? 0 : 1 + (int) (epoch % MAX_PARTICLES);
+    }
+
+    private static int tears(FrameSnapshot snapshot, long epoch) {
+        int[] wrong = new int[1];
+        int[] seen = new int[1];
+        snapshot.replay((x, y, size, palette, shade) -> {
+            if (x != epoch % WRAP || y != seen[0]++) {
+                wrong[0]++;
+            }
+        });
+        return wrong[0] + Math.abs(seen[0] - particles(epoch));
+    }
+}
@@ -0,0 +1,38 @@
+package enginefx.src;
+
+import engine.src.AlphaPalette;
+import engine.src.ParticleSink;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+
+public class GraphicsContextSink implements ParticleSink {
+    private static final Map<AlphaPalette, Color[]> COLORS = new ConcurrentHashMap<>();
+
+    private final GraphicsContext gc;
+    private AlphaPalette palette;
+    private Color[] colors;
+
+    public GraphicsContextSink(GraphicsContext gc) {
+        this.gc = gc;
+    }
+
+    @Override
+    public void fill(double x, double y, double size, AlphaPalette palette, int shade) {
+        if (palette != this.palette) {
+            this.palette = palette;
+            this.colors = COLORS.computeIfAbsent(palette, GraphicsContextSink::colors);
+        }
+        gc.setFill(colors[shade & 0xFF]);
+        gc.fillOval(x, y, size, size);
+    }
+
+    private static Color[] colors(AlphaPalette palette) {
+        Color[] colors = new Color[palette.levels()];
+        for (int i = 0; i < colors.length; i++) {
+            colors[i] = new Color(palette.getRed(), palette.getGreen(), palette.getBlue(), palette.alpha(i));
+        }
+        return colors;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,33 @@
+package enginefx.src;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.PixelBuffer;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+
+public class PixelBufferView {
+    private final IntBuffer buffer;
+    private final PixelBuffer<IntBuffer> pixelBuffer;
+    private final ImageView view;
+
+    public PixelBufferView(int width, int height) {
+        this.buffer = ByteBuffer.allocateDirect(width * height * Integer.BYTES).order(ByteOrder.nativeOrder()).asIntBuffer();
+        this.pixelBuffer = new PixelBuffer<>(width, height, buffer, PixelFormat.getIntArgbPreInstance());
+        this.view = new ImageView(new WritableImage(pixelBuffer));
+    }
+
+    public ImageView getView() {
+        return view;
+    }
+
+    public void present(int[] pixels) {
+        pixelBuffer.updateBuffer(b -> {
+            buffer.clear();
+            buffer.put(pixels, 0, buffer.capacity());
+            return null;
+        });
+    }
+}
\ No newline at end of file
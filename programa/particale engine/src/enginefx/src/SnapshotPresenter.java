@@ -0,0 +1,42 @@
+package enginefx.src;
+
+import engine.src.FrameGovernor;
+import engine.src.FrameSnapshot;
+import engine.src.PixelRasterizer;
+import engine.src.SnapshotBuffer;
+import javafx.animation.AnimationTimer;
+
+public class SnapshotPresenter extends AnimationTimer {
+    private final SnapshotBuffer.Reader snapshots;
+    private final PixelRasterizer rasterizer;
+    private final PixelBufferView view;
+    private volatile FrameGovernor governor;
+    private long presented;
+
+    public SnapshotPresenter(SnapshotBuffer snapshots, PixelRasterizer rasterizer, PixelBufferView view) {
+        this.snapshots = snapshots.register();
+        this.rasterizer = rasterizer;
+        this.view = view;
+    }
+
+    public void setGovernor(FrameGovernor governor) {
+        this.governor = governor;
+    }
+
+    @Override
+    public void handle(long now) {
+        FrameSnapshot snapshot = snapshots.acquire();
+        if (snapshot.getSequence() == presented) {
+            return;
+        }
+        presented = snapshot.getSequence();
+        long started = System.nanoTime();
+        rasterizer.clear();
+        snapshot.replay(rasterizer);
+        view.present(rasterizer.render());
+        FrameGovernor frameGovernor = governor;
+        if (frameGovernor != null) {
+            frameGovernor.observeRender(System.nanoTime() - started);
+        }
+    }
+}
\ No newline at end of file
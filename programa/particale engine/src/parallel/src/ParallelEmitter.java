@@ -1,79 +1,121 @@
-package parallel.src;
-
-import javafx.scene.canvas.GraphicsContext;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
-
-public class ParallelEmitter {
-    private final double x;
-    private final double y;
-    protected List<ParallelParticle> particles;
-    private final int THREAD_COUNT = Runtime.getRuntime().availableProcessors();
-
-    public ParallelEmitter(double x, double y) {
-        this.x = x;
-        this.y = y;
-        this.particles = new ArrayList<>();
-    }
-
-    public void emit(int count) {
-        for (int i = 0; i < count; i++) {
-            double dx = (Math.random() - 0.5) * 7;
-            double dy = (Math.random() - 0.5) * 7;
-            double ttl = 80;
-            particles.add(new ParallelParticle(x, y, dx, dy, ttl));
-        }
-    }
-
-    public void update() {
-        ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
-        int chunkSize = particles.size() / THREAD_COUNT + (particles.size() % THREAD_COUNT == 0 ? 0 : 1);
-        List<ParallelParticle> toRemove = new ArrayList<>();
-
-        for (int i = 0; i < THREAD_COUNT; i++) {
-            final int start = i * chunkSize;
-            final int end = Math.min(start + chunkSize, particles.size());
-            if (start < particles.size()) {
-                final int threadId = i;
-                executor.submit(() -> {
-                    System.out.println("Thread " + threadId + " updating from " + start + " to " + end);
-                    for (int j = start; j < end; j++) {
-                        ParallelParticle p = particles.get(j);
-                        p.update();
-                        if (!p.isAlive()) {
-                            synchronized (toRemove) {
-                                toRemove.add(p);
-                            }
-                        }
-                    }
-                });
-            }
-        }
-
-        executor.shutdown();
-        try {
-            executor.awaitTermination(1, TimeUnit.SECONDS);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        }
-
-        synchronized (particles) {
-            particles.removeAll(toRemove);
-        }
-    }
-
-    public void draw(GraphicsContext gc) {
-        synchronized (particles) {
-            for (ParallelParticle p : particles) {
-                p.draw(gc);
-            }
-        }
-    }
-
-    public List<ParallelParticle> getParticles() {
-        return particles;
-    }
+package parallel.src;
+
+import engine.src.AlphaPalette;
+import engine.src.BoundsPolicy;
+import engine.src.CollisionPass;
+import engine.src.ForceField;
+import engine.src.FrameMetrics;
+import engine.src.FrameScheduler;
+import engine.src.ParticleSink;
+import engine.src.ParticleSpawner;
+import engine.src.ParticleStore;
+import engine.src.Viewport;
+import java.util.concurrent.TimeUnit;
+
+public class ParallelEmitter {
+    private static final AlphaPalette PALETTE = AlphaPalette.rgb(0x8A2BE2, 100);
+    private final double x;
+    private final double y;
+    protected ParticleStore particles;
+    private CollisionPass collisions;
+    private ForceField forces;
+    private BoundsPolicy bounds;
+    private Viewport viewport = new Viewport(800, 600);
+    private final FrameMetrics metrics = new FrameMetrics();
+    private final FrameScheduler scheduler;
+    private final ParticleSpawner spawner;
+
+    public ParallelEmitter(double x, double y) {
+        this(x, y, FrameScheduler.shared());
+    }
+
+    public ParallelEmitter(double x, double y, FrameScheduler scheduler) {
+        this.x = x;
+        this.y = y;
+        this.scheduler = scheduler;
+        this.spawner = new ParticleSpawner(scheduler);
+        metrics.trackAllocations(scheduler);
+        this.particles = new ParticleStore(PALETTE);
+    }
+
+    public void emit(int count) {
+        long started = metrics.begin();
+        spawner.spawn(particles, x, y, count, 80);
+        metrics.end(FrameMetrics.Phase.EMIT, started);
+    }
+
+    public void update() {
+        long started = metrics.begin();
+        if (collisions != null && !collisions.apply(particles, scheduler)) {
+            System.err.println("Parallel collision pass exceeded frame timeout");
+        }
+        if (forces != null && !forces.apply(particles, scheduler)) {
+            System.err.println("Parallel force field exceeded frame timeout");
+        }
+        int size = particles.size();
+        boolean completed = scheduler.forEach(size, (start, end) -> particles.integrate(start, end), 1, TimeUnit.SECONDS);
+        if (!completed) {
+            System.err.println("Parallel update exceeded frame timeout");
+        }
+        if (bounds != null) {
+            if (!bounds.apply(particles, scheduler)) {
+                System.err.println("Parallel bounds pass exceeded frame timeout");
+            }
+            metrics.addRetired(bounds.getRetired());
+        }
+        metrics.end(FrameMetrics.Phase.UPDATE, started);
+
+        started = metrics.begin();
+        particles.removeExpired();
+        metrics.end(FrameMetrics.Phase.COMPACT, started);
+    }
+
+    public void draw(ParticleSink sink) {
+        long started = metrics.begin();
+        Viewport visible = viewport;
+        int culled = 0;
+        for (int i = 0; i < particles.size(); i++) {
+            if (!particles.isAlive(i)) {
+                continue;
+            }
+            double x = particles.x(i);
+            double y = particles.y(i);
+            int shade = particles.shade(i);
+            if (visible != null && !visible.isVisible(x, y, 10, PALETTE, shade)) {
+                culled++;
+                continue;
+            }
+            sink.fill(x, y, 10, PALETTE, shade);
+        }
+        metrics.addCulled(culled);
+        metrics.end(FrameMetrics.Phase.DRAW, started);
+    }
+
+    public ParticleStore getParticles() {
+        return particles;
+    }
+
+    public FrameMetrics getMetrics() {
+        return metrics;
+    }
+
+    public void setSeed(long seed) {
+        spawner.setSeed(seed);
+    }
+
+    public void setCollisions(CollisionPass collisions) {
+        this.collisions = collisions;
+    }
+
+    public void setForceField(ForceField forces) {
+        this.forces = forces;
+    }
+
+    public void setBounds(BoundsPolicy bounds) {
+        this.bounds = bounds;
+    }
+
+    public void setViewport(Viewport viewport) {
+        this.viewport = viewport;
+    }
 }
\ No newline at end of file
@@ -1,395 +1,402 @@
-package particleengine;
-
-import javafx.application.Application;
-import javafx.scene.Scene;
-import javafx.scene.canvas.Canvas;
-import javafx.scene.canvas.GraphicsContext;
-import javafx.scene.control.Button;
-import javafx.scene.layout.VBox;
-import javafx.scene.paint.Color;
-import javafx.stage.Stage;
-import java.io.IOException;
-import java.io.ObjectOutputStream;
-import java.io.ObjectInputStream;
-import java.net.ServerSocket;
-import java.net.Socket;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
-
-public class Main extends Application {
-    private Canvas canvas = new Canvas(800, 600);
-    private GraphicsContext gc = canvas.getGraphicsContext2D();
-    private Emitter currentEmitter;
-    private Thread animationThread;
-    private ServerSocket workerServer;
-    private List<Thread> workerThreads = new ArrayList<>();
-
-    @Override
-    public void start(Stage primaryStage) {
-        Button sequentialBtn = new Button("Sequential Mode");
-        Button parallelBtn = new Button("Parallel Mode");
-        Button distributiveBtn = new Button("Distributive Mode");
-
-        setSequentialMode();
-
-        sequentialBtn.setOnAction(e -> setSequentialMode());
-        parallelBtn.setOnAction(e -> setParallelMode());
-        distributiveBtn.setOnAction(e -> setDistributiveMode());
-
-        VBox root = new VBox(10, canvas, sequentialBtn, parallelBtn, distributiveBtn);
-        primaryStage.setScene(new Scene(root));
-        primaryStage.setTitle("Unified Particle Engine");
-        primaryStage.show();
-
-        startAnimation();
-        startWorkerServer();
-    }
-
-    private void setSequentialMode() {
-        currentEmitter = new SequentialEmitter(400, 250);
-        System.out.println("Switched to Sequential Mode");
-    }
-
-    private void setParallelMode() {
-        currentEmitter = new ParallelEmitter(400, 250);
-        System.out.println("Switched to Parallel Mode");
-    }
-
-    private void setDistributiveMode() {
-        currentEmitter = new DistributiveEmitter(400, 250);
-        System.out.println("Switched to Distributive Mode");
-    }
-
-    private void startAnimation() {
-        animationThread = new Thread(() -> {
-            while (!Thread.currentThread().isInterrupted()) {
-                if (currentEmitter != null) {
-                    currentEmitter.emit(10);
-                    currentEmitter.update();
-                    gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
-                    currentEmitter.draw(gc);
-                }
-
-                try {
-                    Thread.sleep(16);
-                } catch (InterruptedException e) {
-                    System.err.println("Animation thread interrupted: " + e.getMessage());
-                    Thread.currentThread().interrupt();
-                    break;
-                }
-            }
-        });
-        animationThread.setDaemon(true);
-        animationThread.start();
-    }
-
-    private void startWorkerServer() {
-        new Thread(() -> {
-            try {
-                workerServer = new ServerSocket(5001);
-                while (!Thread.currentThread().isInterrupted()) {
-                    Socket worker = workerServer.accept();
-                    Thread workerThread = new Thread(() -> handleWorker(worker));
-                    workerThreads.add(workerThread);
-                    workerThread.start();
-                }
-            } catch (IOException e) {
-                System.err.println("Worker server error: " + e.getMessage());
-            }
-        }).start();
-    }
-
-    private void handleWorker(Socket worker) {
-        try (var out = new ObjectOutputStream(worker.getOutputStream());
-             var in = new ObjectInputStream(worker.getInputStream())) {
-            while (!Thread.currentThread().isInterrupted()) {
-                if (currentEmitter instanceof DistributiveEmitter) {
-                    List<DistributiveParticle> particles = ((DistributiveEmitter) currentEmitter).getParticles();
-                    out.writeObject(new ArrayList<>(particles));
-                    out.flush();
-                    @SuppressWarnings("unchecked")
-                    List<DistributiveParticle> updated = (List<DistributiveParticle>) in.readObject();
-                    synchronized (particles) {
-                        particles.clear();
-                        particles.addAll(updated);
-                    }
-                }
-                try {
-                    Thread.sleep(16);
-                } catch (InterruptedException e) {
-                    System.err.println("Worker thread interrupted: " + e.getMessage());
-                    Thread.currentThread().interrupt();
-                    break;
-                }
-            }
-        } catch (IOException | ClassNotFoundException e) {
-            System.err.println("Worker handling error: " + e.getMessage());
-        }
-    }
-
-    public static void main(String[] args) {
-        launch(args);
-    }
-
-    interface Emitter {
-        void emit(int count);
-        void update();
-        void draw(GraphicsContext gc);
-        List<? extends Particle> getParticles();
-    }
-
-    interface Particle {
-        void update();
-        void draw(GraphicsContext gc);
-        boolean isAlive();
-    }
-
-    class SequentialEmitter implements Emitter {
-        private double x, y;
-        private List<SequentialParticle> particles = new ArrayList<>();
-
-        public SequentialEmitter(double x, double y) {
-            this.x = x;
-            this.y = y;
-        }
-
-        public void emit(int count) {
-            for (int i = 0; i < count; i++) {
-                double dx = (Math.random() - 0.5) * 7;
-                double dy = (Math.random() - 0.5) * 7;
-                particles.add(new SequentialParticle(x, y, dx, dy, 80));
-            }
-        }
-
-        public void update() {
-            List<SequentialParticle> toRemove = new ArrayList<>();
-            for (SequentialParticle p : particles) {
-                p.update();
-                if (!p.isAlive()) toRemove.add(p);
-            }
-            particles.removeAll(toRemove);
-        }
-
-        public void draw(GraphicsContext gc) {
-            for (SequentialParticle p : particles) {
-                p.draw(gc);
-            }
-        }
-
-        public List<SequentialParticle> getParticles() {
-            return particles;
-        }
-    }
-
-    class SequentialParticle implements Particle {
-        private double x, y, dx, dy, ttl;
-        private Color color = Color.HOTPINK;
-
-        public SequentialParticle(double x, double y, double dx, double dy, double ttl) {
-            this.x = x;
-            this.y = y;
-            this.dx = dx;
-            this.dy = dy;
-            this.ttl = ttl;
-        }
-
-        public void update() {
-            x += dx;
-            y += dy;
-            dy += 0.1;
-            ttl--;
-            color = new Color(color.getRed(), color.getGreen(), color.getBlue(), Math.max(0, ttl / 100));
-        }
-
-        public void draw(GraphicsContext gc) {
-            gc.setFill(color);
-            gc.fillOval(x, y, 6, 6);
-        }
-
-        public boolean isAlive() {
-            return ttl > 0;
-        }
-    }
-
-    class ParallelEmitter implements Emitter {
-        private double x, y;
-        private List<ParallelParticle> particles = new ArrayList<>();
-        private final int THREAD_COUNT = Math.min(4, Runtime.getRuntime().availableProcessors());
-
-        public ParallelEmitter(double x, double y) {
-            this.x = x;
-            this.y = y;
-        }
-
-        public void emit(int count) {
-            for (int i = 0; i < count; i++) {
-                double dx = (Math.random() - 0.5) * 7;
-                double dy = (Math.random() - 0.5) * 7;
-                particles.add(new ParallelParticle(x, y, dx, dy, 80));
-            }
-        }
-
-        public void update() {
-            ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
-            int chunkSize = particles.size() / THREAD_COUNT + (particles.size() % THREAD_COUNT == 0 ? 0 : 1);
-            List<ParallelParticle> toRemove = new ArrayList<>();
-
-            for (int i = 0; i < THREAD_COUNT; i++) {
-                final int start = i * chunkSize;
-                final int end = Math.min(start + chunkSize, particles.size());
-                if (start < particles.size()) {
-                    executor.submit(() -> {
-                        for (int j = start; j < end; j++) {
-                            ParallelParticle p = particles.get(j);
-                            p.update();
-                            if (!p.isAlive()) synchronized (toRemove) { toRemove.add(p); }
-                        }
-                    });
-                }
-            }
-
-            executor.shutdown();
-            try {
-                executor.awaitTermination(1, TimeUnit.SECONDS);
-            } catch (InterruptedException e) {
-                System.err.println("Parallel update interrupted: " + e.getMessage());
-            }
-            synchronized (particles) { particles.removeAll(toRemove); }
-        }
-
-        public void draw(GraphicsContext gc) {
-            synchronized (particles) {
-                for (ParallelParticle p : particles) {
-                    p.draw(gc);
-                }
-            }
-        }
-
-        public List<ParallelParticle> getParticles() {
-            return particles;
-        }
-    }
-
-    class ParallelParticle implements Particle {
-        private double x, y, dx, dy, ttl;
-        private Color color = Color.BLUEVIOLET;
-
-        public ParallelParticle(double x, double y, double dx, double dy, double ttl) {
-            this.x = x;
-            this.y = y;
-            this.dx = dx;
-            this.dy = dy;
-            this.ttl = ttl;
-        }
-
-        public void update() {
-            x += dx;
-            y += dy;
-            dy += 0.1;
-            ttl--;
-            color = new Color(color.getRed(), color.getGreen(), color.getBlue(), Math.max(0, ttl / 100));
-        }
-
-        public void draw(GraphicsContext gc) {
-            gc.setFill(color);
-            gc.fillOval(x, y, 10, 10);
-        }
-
-        public boolean isAlive() {
-            return ttl > 0;
-        }
-    }
-
-    class DistributiveEmitter implements Emitter {
-        private double x, y;
-        private List<DistributiveParticle> particles = new ArrayList<>();
-        private final int THREAD_COUNT = Math.min(4, Runtime.getRuntime().availableProcessors());
-
-        public DistributiveEmitter(double x, double y) {
-            this.x = x;
-            this.y = y;
-        }
-
-        public void emit(int count) {
-            for (int i = 0; i < count; i++) {
-                double dx = (Math.random() - 0.5) * 7;
-                double dy = (Math.random() - 0.5) * 7;
-                particles.add(new DistributiveParticle(x, y, dx, dy, 80));
-            }
-        }
-
-        public void update() {
-            ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
-            int chunkSize = particles.size() / THREAD_COUNT + (particles.size() % THREAD_COUNT == 0 ? 0 : 1);
-            List<DistributiveParticle> toRemove = new ArrayList<>();
-
-            for (int i = 0; i < THREAD_COUNT; i++) {
-                final int start = i * chunkSize;
-                final int end = Math.min(start + chunkSize, particles.size());
-                if (start < particles.size()) {
-                    executor.submit(() -> {
-                        for (int j = start; j < end; j++) {
-                            DistributiveParticle p = particles.get(j);
-                            p.update();
-                            if (!p.isAlive()) synchronized (toRemove) { toRemove.add(p); }
-                        }
-                    });
-                }
-            }
-
-            executor.shutdown();
-            try {
-                executor.awaitTermination(1, TimeUnit.SECONDS);
-            } catch (InterruptedException e) {
-                System.err.println("Distributive update interrupted: " + e.getMessage());
-            }
-            synchronized (particles) { particles.removeAll(toRemove); }
-        }
-
-        public void draw(GraphicsContext gc) {
-            synchronized (particles) {
-                for (DistributiveParticle p : particles) {
-                    p.draw(gc);
-                }
-            }
-        }
-
-        public List<DistributiveParticle> getParticles() {
-            return particles;
-        }
-    }
-
-    class DistributiveParticle implements Particle {
-        private double x, y, dx, dy, ttl;
-
-        public DistributiveParticle(double x, double y, double dx, double dy, double ttl) {
-            this.x = x;
-            this.y = y;
-            this.dx = dx;
-            this.dy = dy;
-            this.ttl = ttl;
-        }
-
-        public void update() {
-            x += dx;
-            y += dy;
-            dy += 0.1;
-            ttl = Math.max(0, ttl - 1);
-        }
-
-        public void draw(GraphicsContext gc) {
-            if (ttl > 0) {
-                double alpha = ttl / 80.0;
-                gc.setFill(Color.rgb(255, 0, 0, alpha));
-                gc.fillOval(x, y, 5, 5);
-            }
-        }
-
-        public boolean isAlive() {
-            return ttl > 0;
-        }
-    }
-}
+package particleengine;
+
+import engine.src.AlphaPalette;
+import engine.src.BackendSelector;
+import engine.src.BackendSelector.Backend;
+import engine.src.BoundsPolicy;
+import engine.src.FrameCapture;
+import engine.src.FrameGovernor;
+import engine.src.FrameMetrics;
+import engine.src.FrameScheduler;
+import engine.src.LoadBalancer;
+import engine.src.ParticleSink;
+import engine.src.ParticleSpawner;
+import engine.src.ParticleStore;
+import engine.src.PixelRasterizer;
+import engine.src.SimulationLoop;
+import engine.src.Viewport;
+import engine.src.WorkerHub;
+import enginefx.src.PixelBufferView;
+import enginefx.src.SnapshotPresenter;
+import javafx.application.Application;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.layout.VBox;
+import javafx.stage.Stage;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class Main extends Application {
+    private static final long WORKER_DEADLINE_MILLIS = 50;
+
+    private PixelRasterizer rasterizer = new PixelRasterizer(800, 600);
+    private PixelBufferView view = new PixelBufferView(800, 600);
+    private volatile Emitter currentEmitter;
+    private SimulationLoop simulation;
+    private Thread animationThread;
+    private volatile WorkerHub workerHub;
+    private final LoadBalancer balancer = new LoadBalancer();
+    private final FrameScheduler frameScheduler = new FrameScheduler(Math.min(4, Runtime.getRuntime().availableProcessors()));
+    private final FrameMetrics metrics = new FrameMetrics();
+    private final FrameGovernor governor = new FrameGovernor(1_000_000_000L / 60, TimeUnit.NANOSECONDS);
+    private final BoundsPolicy bounds = new BoundsPolicy(BoundsPolicy.Mode.RETIRE, 800, 600, 10);
+    private final Viewport viewport = new Viewport(800, 600);
+    private final BackendSelector selector = new BackendSelector(1_000_000_000L / 60, TimeUnit.NANOSECONDS);
+    private final AtomicReference<Backend> requestedBackend = new AtomicReference<>();
+    private volatile boolean autoBackend;
+    private Backend backend;
+
+    @Override
+    public void start(Stage primaryStage) {
+        Button sequentialBtn = new Button("Sequential Mode");
+        Button parallelBtn = new Button("Parallel Mode");
+        Button distributiveBtn = new Button("Distributive Mode");
+        Button autoBtn = new Button("Auto Mode");
+
+        setSequentialMode();
+
+        sequentialBtn.setOnAction(e -> setSequentialMode());
+        parallelBtn.setOnAction(e -> setParallelMode());
+        distributiveBtn.setOnAction(e -> setDistributiveMode());
+        autoBtn.setOnAction(e -> setAutoMode());
+
+        VBox root = new VBox(10, view.getView(), sequentialBtn, parallelBtn, distributiveBtn, autoBtn);
+        primaryStage.setScene(new Scene(root));
+        primaryStage.setTitle("Unified Particle Engine");
+        primaryStage.show();
+
+        startAnimation();
+        startWorkerServer();
+    }
+
+    private void setSequentialMode() {
+        autoBackend = false;
+        requestedBackend.set(Backend.SEQUENTIAL);
+    }
+
+    private void setParallelMode() {
+        autoBackend = false;
+        requestedBackend.set(Backend.PARALLEL);
+    }
+
+    private void setDistributiveMode() {
+        autoBackend = false;
+        requestedBackend.set(Backend.DISTRIBUTIVE);
+    }
+
+    private void setAutoMode() {
+        autoBackend = true;
+        System.out.println("Switched to Auto Mode");
+    }
+
+    // Runs on the simulation thread between frames, so the outgoing emitter is never mid-update when it hands over.
+    private Emitter swapBackend() {
+        Emitter emitter = currentEmitter;
+        Backend next = requestedBackend.getAndSet(null);
+        if (next == null || (emitter != null && next == backend)) {
+            return emitter;
+        }
+        Emitter replacement;
+        switch (next) {
+            case PARALLEL:
+                replacement = new ParallelEmitter(400, 250);
+                break;
+            case DISTRIBUTIVE:
+                replacement = new DistributiveEmitter(400, 250);
+                break;
+            default:
+                replacement = new SequentialEmitter(400, 250);
+                break;
+        }
+        if (emitter != null) {
+            replacement.adopt(emitter);
+        }
+        backend = next;
+        currentEmitter = replacement;
+        String mode = next.name().charAt(0) + next.name().substring(1).toLowerCase();
+        System.out.println("Switched to " + mode + " Mode" + (autoBackend ? " (auto, " + replacement.getParticles().size() + " particles)" : ""));
+        return replacement;
+    }
+
+    private void selectBackend(int population, long frameNanos) {
+        WorkerHub hub = workerHub;
+        int workers = hub == null ? 0 : hub.size();
+        Backend next = selector.select(backend, population, frameNanos, frameScheduler.getParallelism(), workers);
+        if (next != backend) {
+            requestedBackend.compareAndSet(null, next);
+        }
+    }
+
+    private void startAnimation() {
+        simulation = new SimulationLoop(1_000_000_000L / 60, TimeUnit.NANOSECONDS, () -> {
+            Emitter emitter = swapBackend();
+            if (emitter != null) {
+                long started = metrics.begin();
+                emitter.emit(governor.emitCount(10));
+                metrics.end(FrameMetrics.Phase.EMIT, started);
+                long updated = metrics.begin();
+                update(emitter);
+                metrics.end(FrameMetrics.Phase.UPDATE, updated);
+                int population = emitter.getParticles().size();
+                metrics.endFrame(population);
+                if (autoBackend) {
+                    selectBackend(population, System.nanoTime() - started);
+                }
+            }
+        }, sink -> {
+            Emitter emitter = currentEmitter;
+            if (emitter != null) {
+                long started = metrics.begin();
+                emitter.draw(sink);
+                metrics.end(FrameMetrics.Phase.DRAW, started);
+            }
+        });
+        simulation.setGovernor(governor);
+        metrics.setGovernor(governor);
+        metrics.trackAllocations(frameScheduler);
+        try {
+            simulation.setCapture(FrameCapture.fromProperties("engine"));
+        } catch (IOException e) {
+            System.err.println("Recording error: " + e.getMessage());
+        }
+        animationThread = simulation.start("animation");
+        try {
+            metrics.exportCsv(Paths.get("engine-metrics.csv"), 1, TimeUnit.SECONDS);
+        } catch (IOException e) {
+            System.err.println("Metrics export error: " + e.getMessage());
+        }
+        SnapshotPresenter presenter = new SnapshotPresenter(simulation.getSnapshots(), rasterizer, view);
+        presenter.setGovernor(governor);
+        presenter.start();
+    }
+
+    private void startWorkerServer() {
+        try {
+            workerHub = new WorkerHub(5001);
+        } catch (IOException e) {
+            System.err.println("Worker server error: " + e.getMessage());
+        }
+    }
+
+    private void update(Emitter emitter) {
+        WorkerHub hub = workerHub;
+        if (hub != null) {
+            try {
+                hub.poll(0);
+                if (emitter instanceof DistributiveEmitter && hub.size() > 0 && exchangeWithWorkers(hub, emitter.getParticles())) {
+                    return;
+                }
+            } catch (IOException e) {
+                System.err.println("Worker handling error: " + e.getMessage());
+            }
+        }
+        emitter.update();
+    }
+
+    private boolean exchangeWithWorkers(WorkerHub hub, ParticleStore particles) throws IOException {
+        int[] ids = hub.readyIds();
+        if (ids.length == 0) {
+            hub.strikeStuck();
+            return false;
+        }
+        int[] counts = balancer.split(particles.size(), ids);
+        int[] starts = new int[ids.length + 1];
+        for (int i = 0; i < ids.length; i++) {
+            starts[i + 1] = starts[i] + counts[i];
+        }
+        boolean[] replied = new boolean[ids.length];
+        // Everything here runs on the simulation thread; a reply that misses this round's deadline is dropped by the
+        // hub's round check instead of being decoded over a later frame's slices.
+        hub.exchange((peer, channel) -> {
+            long started = metrics.begin();
+            channel.encodeParticles(particles, starts[peer.getIndex()], starts[peer.getIndex() + 1]);
+            metrics.end(FrameMetrics.Phase.SEND, started);
+        }, (peer, channel) -> {
+            long started = metrics.begin();
+            int count = channel.decodeParticles(particles, starts[peer.getIndex()]);
+            replied[peer.getIndex()] = true;
+            balancer.record(peer.getId(), count, peer.getRoundTripNanos());
+            metrics.end(FrameMetrics.Phase.RECEIVE, started);
+        }, WORKER_DEADLINE_MILLIS, TimeUnit.MILLISECONDS);
+        for (int i = 0; i < ids.length; i++) {
+            if (!replied[i]) {
+                balancer.record(ids[i], counts[i], TimeUnit.MILLISECONDS.toNanos(WORKER_DEADLINE_MILLIS));
+                particles.integrate(starts[i], starts[i + 1]);
+            }
+        }
+        bounds.apply(particles);
+        metrics.addRetired(bounds.getRetired());
+        particles.removeExpired();
+        return true;
+    }
+
+    @Override
+    public void stop() {
+        if (simulation != null) {
+            simulation.stop();
+        }
+    }
+
+    public static void main(String[] args) {
+        launch(args);
+    }
+
+    interface Emitter {
+        void emit(int count);
+        void update();
+        void draw(ParticleSink sink);
+        ParticleStore getParticles();
+        void adopt(Emitter previous);
+    }
+
+    class SequentialEmitter implements Emitter {
+        private double x, y;
+        private final AlphaPalette palette = AlphaPalette.rgb(0xFF69B4, 100);
+        private ParticleStore particles = new ParticleStore(palette);
+        private final ParticleSpawner spawner = new ParticleSpawner();
+
+        public SequentialEmitter(double x, double y) {
+            this.x = x;
+            this.y = y;
+        }
+
+        public void emit(int count) {
+            spawner.spawn(particles, x, y, count, 80);
+        }
+
+        public void update() {
+            particles.integrate(0, particles.size());
+            bounds.apply(particles);
+            metrics.addRetired(bounds.getRetired());
+            particles.removeExpired();
+        }
+
+        public void draw(ParticleSink sink) {
+            int culled = 0;
+            for (int i = 0; i < particles.size(); i++) {
+                if (!particles.isAlive(i)) {
+                    continue;
+                }
+                if (!viewport.isVisible(particles.x(i), particles.y(i), 6, palette, particles.shade(i))) {
+                    culled++;
+                    continue;
+                }
+                sink.fill(particles.x(i), particles.y(i), 6, palette, particles.shade(i));
+            }
+            metrics.addCulled(culled);
+        }
+
+        public ParticleStore getParticles() {
+            return particles;
+        }
+
+        public void adopt(Emitter previous) {
+            particles = previous.getParticles();
+            particles.setPalette(palette);
+        }
+    }
+
+    class ParallelEmitter implements Emitter {
+        private double x, y;
+        private final AlphaPalette palette = AlphaPalette.rgb(0x8A2BE2, 100);
+        private ParticleStore particles = new ParticleStore(palette);
+        private final ParticleSpawner spawner = new ParticleSpawner(frameScheduler);
+
+        public ParallelEmitter(double x, double y) {
+            this.x = x;
+            this.y = y;
+        }
+
+        public void emit(int count) {
+            spawner.spawn(particles, x, y, count, 80);
+        }
+
+        public void update() {
+            if (!frameScheduler.forEach(particles.size(), particles::integrate, 1, TimeUnit.SECONDS)) {
+                System.err.println("Parallel update exceeded frame timeout");
+            }
+            if (!bounds.apply(particles, frameScheduler)) {
+                System.err.println("Parallel bounds pass exceeded frame timeout");
+            }
+            metrics.addRetired(bounds.getRetired());
+            particles.removeExpired();
+        }
+
+        public void draw(ParticleSink sink) {
+            int culled = 0;
+            for (int i = 0; i < particles.size(); i++) {
+                if (!particles.isAlive(i)) {
+                    continue;
+                }
+                if (!viewport.isVisible(particles.x(i), particles.y(i), 10, palette, particles.shade(i))) {
+                    culled++;
+                    continue;
+                }
+                sink.fill(particles.x(i), particles.y(i), 10, palette, particles.shade(i));
+            }
+            metrics.addCulled(culled);
+        }
+
+        public ParticleStore getParticles() {
+            return particles;
+        }
+
+        public void adopt(Emitter previous) {
+            particles = previous.getParticles();
+            particles.setPalette(palette);
+        }
+    }
+
+    class DistributiveEmitter implements Emitter {
+        private double x, y;
+        private final AlphaPalette palette = AlphaPalette.rgb(0xFF0000, 80);
+        private ParticleStore particles = new ParticleStore(palette);
+        private final ParticleSpawner spawner = new ParticleSpawner(frameScheduler);
+
+        public DistributiveEmitter(double x, double y) {
+            this.x = x;
+            this.y = y;
+        }
+
+        public void emit(int count) {
+            spawner.spawn(particles, x, y, count, 80);
+        }
+
+        public void update() {
+            if (!frameScheduler.forEach(particles.size(), particles::integrate, 1, TimeUnit.SECONDS)) {
+                System.err.println("Distributive update exceeded frame timeout");
+            }
+            if (!bounds.apply(particles, frameScheduler)) {
+                System.err.println("Distributive bounds pass exceeded frame timeout");
+            }
+            metrics.addRetired(bounds.getRetired());
+            particles.removeExpired();
+        }
+
+        public void draw(ParticleSink sink) {
+            int culled = 0;
+            for (int i = 0; i < particles.size(); i++) {
+                if (!particles.isAlive(i)) {
+                    continue;
+                }
+                if (!viewport.isVisible(particles.x(i), particles.y(i), 5, palette, particles.shade(i))) {
+                    culled++;
+                    continue;
+                }
+                sink.fill(particles.x(i), particles.y(i), 5, palette, particles.shade(i));
+            }
+            metrics.addCulled(culled);
+        }
+
+        public ParticleStore getParticles() {
+            return particles;
+        }
+
+        public void adopt(Emitter previous) {
+            particles = previous.getParticles();
+            particles.setPalette(palette);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package particleengine;
+
+import engine.src.FrameCapture;
+import engine.src.FrameReplay;
+import engine.src.PixelRasterizer;
+import engine.src.SimulationLoop;
+import enginefx.src.PixelBufferView;
+import enginefx.src.SnapshotPresenter;
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.scene.Scene;
+import javafx.scene.layout.StackPane;
+import javafx.stage.Stage;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class ReplayMain extends Application {
+    private FrameReplay replay;
+    private SimulationLoop playback;
+    private volatile int frame = -1;
+
+    @Override
+    public void start(Stage theWindow) {
+        List<String> args = getParameters().getRaw();
+        Path capture;
+        try {
+            capture = args.isEmpty() ? FrameCapture.latest(Paths.get(System.getProperty(FrameCapture.DIRECTORY_PROPERTY, ".")), "engine")
+                    : Paths.get(args.get(0));
+            if (capture == null) {
+                System.err.println("Replay error: no engine capture found; record one with -D" + FrameCapture.DIRECTORY_PROPERTY + "=<directory>");
+                Platform.exit();
+                return;
+            }
+            replay = new FrameReplay(capture);
+        } catch (IOException e) {
+            System.err.println("Replay error: " + e.getMessage());
+            Platform.exit();
+            return;
+        }
+        if (replay.frames() == 0) {
+            System.err.println("Replay error: " + capture + " holds no frames");
+            Platform.exit();
+            return;
+        }
+        System.out.println("Replaying " + replay.frames() + " frames from " + capture);
+
+        PixelRasterizer rasterizer = new PixelRasterizer(800, 600);
+        PixelBufferView view = new PixelBufferView(800, 600);
+        playback = new SimulationLoop(1_000_000_000L / 60, TimeUnit.NANOSECONDS,
+                () -> frame = (frame + 1) % replay.frames(), sink -> {
+            try {
+                replay.replay(frame, sink);
+            } catch (IOException e) {
+                System.err.println("Replay error: " + e.getMessage());
+            }
+        });
+        playback.start("replay");
+        new SnapshotPresenter(playback.getSnapshots(), rasterizer, view).start();
+
+        StackPane root = new StackPane();
+        root.getChildren().addAll(view.getView());
+        theWindow.setScene(new Scene(root));
+        theWindow.setTitle("Replay - " + capture);
+        theWindow.show();
+    }
+
+    @Override
+    public void stop() {
+        if (playback != null) {
+            playback.stop();
+        }
+    }
+
+    public static void main(String[] args) {
+        launch(args);
+    }
+}
\ No newline at end of file
@@ -1,46 +1,105 @@
-package sequentilal.src;
-
-import javafx.scene.canvas.GraphicsContext;
-import java.util.ArrayList;
-import java.util.List;
-
-public class SequentialEmitter {
-    private final double x;
-    private final double y;
-    protected List<SequentialParticle> particles;
-
-    public SequentialEmitter(double x, double y) {
-        this.x = x;
-        this.y = y;
-        this.particles = new ArrayList<>();
-    }
-
-    public void emit(int count) {
-        for (int i = 0; i < count; i++) {
-            double dx = (Math.random() - 0.5) * 7;
-            double dy = (Math.random() - 0.5) * 7;
-            double ttl = 80;
-            particles.add(new SequentialParticle(x, y, dx, dy, ttl));
-        }
-    }
-
-    public void update() {
-        for (int i = particles.size() - 1; i >= 0; i--) {
-            SequentialParticle p = particles.get(i);
-            p.update();
-            if (!p.isAlive()) {
-                particles.remove(i);
-            }
-        }
-    }
-
-    public void draw(GraphicsContext gc) {
-        for (SequentialParticle p : particles) {
-            p.draw(gc);
-        }
-    }
-
-    public List<SequentialParticle> getParticles() {
-        return particles;
-    }
+package sequentilal.src;
+
+import engine.src.AlphaPalette;
+import engine.src.BoundsPolicy;
+import engine.src.CollisionPass;
+import engine.src.ForceField;
+import engine.src.FrameMetrics;
+import engine.src.ParticleSink;
+import engine.src.ParticleSpawner;
+import engine.src.ParticleStore;
+import engine.src.Viewport;
+
+public class SequentialEmitter {
+    private static final AlphaPalette PALETTE = AlphaPalette.rgb(0xFF69B4, 100);
+    private final double x;
+    private final double y;
+    protected ParticleStore particles;
+    private CollisionPass collisions;
+    private ForceField forces;
+    private BoundsPolicy bounds;
+    private Viewport viewport = new Viewport(800, 600);
+    private final FrameMetrics metrics = new FrameMetrics();
+    private final ParticleSpawner spawner = new ParticleSpawner();
+
+    public SequentialEmitter(double x, double y) {
+        this.x = x;
+        this.y = y;
+        this.particles = new ParticleStore(PALETTE);
+    }
+
+    public void emit(int count) {
+        long started = metrics.begin();
+        spawner.spawn(particles, x, y, count, 80);
+        metrics.end(FrameMetrics.Phase.EMIT, started);
+    }
+
+    public void update() {
+        long started = metrics.begin();
+        if (collisions != null) {
+            collisions.apply(particles);
+        }
+        if (forces != null) {
+            forces.apply(particles);
+        }
+        particles.integrate(0, particles.size());
+        if (bounds != null) {
+            bounds.apply(particles);
+            metrics.addRetired(bounds.getRetired());
+        }
+        metrics.end(FrameMetrics.Phase.UPDATE, started);
+
+        started = metrics.begin();
+        particles.removeExpired();
+        metrics.end(FrameMetrics.Phase.COMPACT, started);
+    }
+
+    public void draw(ParticleSink sink) {
+        long started = metrics.begin();
+        Viewport visible = viewport;
+        int culled = 0;
+        for (int i = 0; i < particles.size(); i++) {
+            if (!particles.isAlive(i)) {
+                continue;
+            }
+            double x = particles.x(i);
+            double y = particles.y(i);
+            int shade = particles.shade(i);
+            if (visible != null && !visible.isVisible(x, y, 6, PALETTE, shade)) {
+                culled++;
+                continue;
+            }
+            sink.fill(x, y, 6, PALETTE, shade);
+        }
+        metrics.addCulled(culled);
+        metrics.end(FrameMetrics.Phase.DRAW, started);
+    }
+
+    public ParticleStore getParticles() {
+        return particles;
+    }
+
+    public FrameMetrics getMetrics() {
+        return metrics;
+    }
+
+    public void setSeed(long seed) {
+        spawner.setSeed(seed);
+    }
+
+    public void setCollisions(CollisionPass collisions) {
+        this.collisions = collisions;
+    }
+
+    public void setForceField(ForceField forces) {
+        this.forces = forces;
+    }
+
+    public void setBounds(BoundsPolicy bounds) {
+        this.bounds = bounds;
+    }
+
+    public void setViewport(Viewport viewport) {
+        this.viewport = viewport;
+    }
 }
\ No newline at end of file
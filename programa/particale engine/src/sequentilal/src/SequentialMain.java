@@ -1,47 +1,68 @@
-package sequentilal.src;
-
-import javafx.application.Application;
-import javafx.scene.Scene;
-import javafx.scene.canvas.Canvas;
-import javafx.scene.canvas.GraphicsContext;
-import javafx.scene.layout.StackPane;
-import javafx.stage.Stage;
-import java.util.ArrayList;
-import java.util.List;
-
-public class SequentialMain extends Application {
-    private SequentialEmitter emiter;
-    private List<Integer> particleCounts = new ArrayList<>();
-
-    @Override
-    public void start(Stage theWindow) {
-        Canvas canvas = new Canvas(800, 600);
-        GraphicsContext gc = canvas.getGraphicsContext2D();
-        emiter = new SequentialEmitter(400, 250);
-
-        new Thread(() -> {
-            while (true) {
-                emiter.emit(25);
-                emiter.update();
-                particleCounts.add(emiter.getParticles().size());
-                gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
-                emiter.draw(gc);
-
-                try {
-                    Thread.sleep(16);
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                }
-            }
-        }).start();
-
-        StackPane root = new StackPane();
-        root.getChildren().addAll(canvas);
-        theWindow.setScene(new Scene(root));
-        theWindow.show();
-    }
-
-    public static void main(String[] args) {
-        launch(args);
-    }
+package sequentilal.src;
+
+import engine.src.BoundsPolicy;
+import engine.src.FrameCapture;
+import engine.src.FrameGovernor;
+import engine.src.PixelRasterizer;
+import engine.src.SimulationLoop;
+import enginefx.src.PixelBufferView;
+import enginefx.src.SnapshotPresenter;
+import javafx.application.Application;
+import javafx.scene.Scene;
+import javafx.scene.layout.StackPane;
+import javafx.stage.Stage;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+public class SequentialMain extends Application {
+    private SequentialEmitter emiter;
+    private SimulationLoop simulation;
+
+    @Override
+    public void start(Stage theWindow) {
+        PixelRasterizer rasterizer = new PixelRasterizer(800, 600);
+        PixelBufferView view = new PixelBufferView(800, 600);
+        emiter = new SequentialEmitter(400, 250);
+        emiter.setBounds(new BoundsPolicy(BoundsPolicy.Mode.RETIRE, 800, 600, 10));
+
+        FrameGovernor governor = new FrameGovernor(1_000_000_000L / 60, TimeUnit.NANOSECONDS);
+        emiter.getMetrics().setGovernor(governor);
+        simulation = new SimulationLoop(1_000_000_000L / 60, TimeUnit.NANOSECONDS, () -> {
+            emiter.emit(governor.emitCount(25));
+            emiter.update();
+            emiter.getMetrics().endFrame(emiter.getParticles().size());
+        }, emiter::draw);
+        simulation.setGovernor(governor);
+        try {
+            simulation.setCapture(FrameCapture.fromProperties("sequential"));
+        } catch (IOException e) {
+            System.err.println("Recording error: " + e.getMessage());
+        }
+        simulation.start("simulation");
+        try {
+            emiter.getMetrics().exportCsv(Paths.get("sequential-metrics.csv"), 1, TimeUnit.SECONDS);
+        } catch (IOException e) {
+            System.err.println("Metrics export error: " + e.getMessage());
+        }
+        SnapshotPresenter presenter = new SnapshotPresenter(simulation.getSnapshots(), rasterizer, view);
+        presenter.setGovernor(governor);
+        presenter.start();
+
+        StackPane root = new StackPane();
+        root.getChildren().addAll(view.getView());
+        theWindow.setScene(new Scene(root));
+        theWindow.show();
+    }
+
+    @Override
+    public void stop() {
+        if (simulation != null) {
+            simulation.stop();
+        }
+    }
+
+    public static void main(String[] args) {
+        launch(args);
+    }
 }
\ No newline at end of file
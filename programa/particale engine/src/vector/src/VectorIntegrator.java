@@ -0,0 +1,43 @@
+package vector.src;
+
+import engine.src.Integrator;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+public class VectorIntegrator implements Integrator {
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Float> FLOATS = FloatVector.SPECIES_PREFERRED;
+
+    @Override
+    public int integrate(double[] x, double[] y, double[] dx, double[] dy, float[] ttl, int start, int end) {
+        int i = start;
+        for (int bound = start + DOUBLES.loopBound(end - start); i < bound; i += DOUBLES.length()) {
+            DoubleVector vdx = DoubleVector.fromArray(DOUBLES, dx, i);
+            DoubleVector vdy = DoubleVector.fromArray(DOUBLES, dy, i);
+            DoubleVector.fromArray(DOUBLES, x, i).add(vdx).intoArray(x, i);
+            DoubleVector.fromArray(DOUBLES, y, i).add(vdy).intoArray(y, i);
+            vdy.add(0.1).intoArray(dy, i);
+        }
+        for (; i < end; i++) {
+            x[i] += dx[i];
+            y[i] += dy[i];
+            dy[i] += 0.1;
+        }
+
+        int alive = 0;
+        i = start;
+        for (int bound = start + FLOATS.loopBound(end - start); i < bound; i += FLOATS.length()) {
+            FloatVector life = FloatVector.fromArray(FLOATS, ttl, i).sub(1f);
+            life.intoArray(ttl, i);
+            alive += life.compare(VectorOperators.GT, 0f).trueCount();
+        }
+        for (; i < end; i++) {
+            if (--ttl[i] > 0) {
+                alive++;
+            }
+        }
+        return alive;
+    }
+}
\ No newline at end of file
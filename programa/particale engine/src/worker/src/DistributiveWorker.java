@@ -0,0 +1,180 @@
+package worker.src;
+
+import engine.src.EmitCommand;
+import engine.src.ParticleChannel;
+import engine.src.ParticleCodec;
+import engine.src.ParticleStore;
+import engine.src.SharedParticleRegion;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ProtocolException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.LockSupport;
+
+public class DistributiveWorker {
+    private static final int SPIN_LIMIT = 10_000;
+    private static final int TCP_POLL_INTERVAL = 64;
+    private static final long IDLE_PARK_NANOS = 50_000;
+    private static final int TRAINING_FRAMES = 200;
+
+    public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("--train")) {
+            train(args.length > 1 ? Integer.parseInt(args[1]) : TRAINING_FRAMES);
+            return;
+        }
+        long throttleNanos = args.length > 0 ? Long.parseLong(args[0]) : 0;
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 5001;
+        String host = args.length > 2 ? args[2] : "localhost";
+        boolean allowShared = args.length < 4 || !args[3].equals("tcp");
+        try (ParticleChannel channel = new ParticleChannel(SocketChannel.open(new InetSocketAddress(host, port)))) {
+            serve(channel, throttleNanos, allowShared);
+        } catch (Exception e) {
+            System.err.println("Worker error: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    public static void serve(ParticleChannel channel, long throttleNanos, boolean allowShared) throws IOException {
+        SharedParticleRegion shared = null;
+        try {
+            channel.sendHello();
+            ParticleStore particles = new ParticleStore();
+            ParticleStore shard = new ParticleStore();
+            List<EmitCommand> emits = new ArrayList<>();
+
+            while (true) {
+                byte type = shared == null ? channel.readFrame() : awaitShared(channel, shared, throttleNanos);
+                if (type == ParticleCodec.TYPE_PARTICLES) {
+                    particles.clear();
+                    int count = channel.decodeParticles(particles, 0);
+                    particles.integrate(0, count);
+                    throttle(throttleNanos, count);
+                    send(channel, shared != null, () -> channel.sendParticles(particles, 0, count));
+                } else if (type == ParticleCodec.TYPE_STEP) {
+                    emits.clear();
+                    int release = channel.decodeStep(emits);
+                    shard.truncate(shard.size() - release);
+                    for (EmitCommand emit : emits) {
+                        emit.spawnInto(shard);
+                    }
+                    shard.integrate(0, shard.size());
+                    throttle(throttleNanos, shard.size());
+                    shard.removeExpired();
+                    send(channel, shared != null, () -> channel.sendSnapshot(shard, 0, shard.size()));
+                } else if (type == ParticleCodec.TYPE_ATTACH) {
+                    String path = channel.decodeAttach();
+                    if (allowShared && shared == null) {
+                        shared = SharedParticleRegion.open(Paths.get(path));
+                        channel.sendAttach(path);
+                        channel.setBlocking(false);
+                        System.out.println("Worker attached to shared region " + path);
+                    } else {
+                        channel.sendAttach("");
+                    }
+                } else {
+                    throw new ProtocolException("Unexpected frame type " + type);
+                }
+            }
+        } finally {
+            if (shared != null) {
+                try {
+                    shared.close();
+                } catch (IOException e) {
+                    System.err.println("Worker close error: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    // Plays master to a worker over loopback for a few frames so every class the steady state needs gets loaded;
+    // the worker image build runs this under -XX:ArchiveClassesAtExit to produce its AppCDS archive.
+    private static void train(int frames) {
+        try (ServerSocketChannel server = ServerSocketChannel.open()) {
+            server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            InetSocketAddress address = (InetSocketAddress) server.getLocalAddress();
+            Thread worker = new Thread(() -> {
+                try (ParticleChannel channel = new ParticleChannel(SocketChannel.open(address))) {
+                    serve(channel, 0, false);
+                } catch (IOException e) {
+                    // the master side hangs up once training is done
+                }
+            }, "training-worker");
+            worker.start();
+
+            try (ParticleChannel master = new ParticleChannel(server.accept())) {
+                master.expectHello();
+                SplittableRandom seeds = new SplittableRandom(42);
+                ParticleStore particles = new ParticleStore();
+                List<EmitCommand> emits = new ArrayList<>();
+                for (int frame = 0; frame < frames; frame++) {
+                    emits.clear();
+                    emits.add(new EmitCommand(400, 250, 500, seeds.nextLong(), 80));
+                    master.sendStep(emits);
+                    master.readFrame();
+                    particles.clear();
+                    int count = master.decodeSnapshot(particles);
+                    master.sendParticles(particles, 0, count);
+                    particles.clear();
+                    master.receiveParticles(particles, 0);
+                }
+            }
+            worker.join();
+            System.out.println("Worker trained on " + frames + " frames");
+        } catch (IOException e) {
+            System.err.println("Worker training error: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static byte awaitShared(ParticleChannel channel, SharedParticleRegion shared, long throttleNanos) throws IOException {
+        int idle = 0;
+        while (true) {
+            if (shared.pollRequest()) {
+                shared.integrate();
+                throttle(throttleNanos, shared.getCount());
+                shared.complete();
+                idle = 0;
+                continue;
+            }
+            idle++;
+            if ((idle >= SPIN_LIMIT || idle % TCP_POLL_INTERVAL == 0) && channel.readAvailable()) {
+                return channel.getFrameType();
+            }
+            if (idle < SPIN_LIMIT) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    private interface Reply {
+        void send() throws IOException;
+    }
+
+    private static void send(ParticleChannel channel, boolean nonBlocking, Reply reply) throws IOException {
+        if (!nonBlocking) {
+            reply.send();
+            return;
+        }
+        channel.setBlocking(true);
+        try {
+            reply.send();
+        } finally {
+            channel.setBlocking(false);
+        }
+    }
+
+    private static void throttle(long nanosPerParticle, int particles) {
+        if (nanosPerParticle > 0) {
+            LockSupport.parkNanos(nanosPerParticle * particles);
+        }
+    }
+}
\ No newline at end of file